@@ -0,0 +1,45 @@
+package com.example.benchmarks;
+
+import com.example.utils.FileUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Dựng payload dùng chung cho các benchmark: "single" là template inside,
+ * còn "10"/"100"/"1000" là bulk template được nhân bản tới đúng số transaction.
+ */
+final class BenchmarkPayloads {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private BenchmarkPayloads() {
+    }
+
+    static ObjectNode build(String payload, int authorizers) throws Exception {
+        ObjectNode request = "single".equals(payload) ? template("inside") : bulk(Integer.parseInt(payload));
+        ArrayNode authorizations = (ArrayNode) request.path("requestParameters").path("authorizations");
+        while (authorizations.size() > authorizers) {
+            authorizations.remove(authorizations.size() - 1);
+        }
+        return request;
+    }
+
+    static ObjectNode template(String key) throws Exception {
+        return (ObjectNode) mapper.valueToTree(FileUtil.getRequestTemplate(key));
+    }
+
+    private static ObjectNode bulk(int transactionCount) throws Exception {
+        ObjectNode request = template("bulk-transaction-template");
+        ObjectNode data = (ObjectNode) request.path("requestParameters").path("data");
+        ArrayNode source = (ArrayNode) data.path("transactions");
+        ArrayNode transactions = mapper.createArrayNode();
+        for (int i = 0; i < transactionCount; i++) {
+            ObjectNode transaction = (ObjectNode) source.get(i % source.size()).deepCopy();
+            transaction.put("transactionTraceNumber", String.format("bench%010d", i));
+            transactions.add(transaction);
+        }
+        data.set("transactions", transactions);
+        data.put("bulkTraceNumber", "pika0000000000");
+        return request;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.benchmarks;
+
+import com.example.utils.AuthorizationSigner;
+import com.example.utils.SignerProviders;
+import com.example.utils.SignerRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * So sánh chi phí ký CMS giữa các JCA provider cho raw RSA và digest calculator.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProviderBenchmark {
+    private static final String PLAIN_TEXT = "7c52877e014e66cc8bd708dbb8d64deac53ebfd450429bc95b7530bc1d8d207a";
+
+    @Param({"BC", "SunRsaSign"})
+    public String signatureProvider;
+
+    @Param({"BC", "SUN"})
+    public String digestProvider;
+
+    private AuthorizationSigner signer;
+
+    @Setup
+    public void setUp() throws Exception {
+        SignerRegistry registry = SignerRegistry.getDefault();
+        String authorizationId = registry.authorizationIds().iterator().next();
+        signer = registry.get(authorizationId).withProviders(new SignerProviders(signatureProvider, digestProvider));
+    }
+
+    @Benchmark
+    public String signCms() {
+        return signer.sign(PLAIN_TEXT);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.benchmarks;
+
+import com.example.tests.utils.TestUtils;
+import com.example.utils.FileUtil;
+import com.example.utils.TemplateRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chi phí dựng request từ các file requestTemplates/*.json. Hai benchmark *Signed* so sánh body đã ký, sẵn sàng
+ * gửi: dựng cây Jackson + ký + serialize với render từ {@link com.example.utils.CompiledTemplate}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestBuildingBenchmark {
+    @Param({"inside", "ibft", "citad", "bulk-transaction-template"})
+    public String templateKey;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Benchmark
+    public Object readTemplate() throws Exception {
+        return FileUtil.getRequestTemplate(templateKey);
+    }
+
+    @Benchmark
+    public ObjectNode newRequestFromRegistry() {
+        return TemplateRegistry.getDefault().newRequest(templateKey);
+    }
+
+    @Benchmark
+    public ObjectNode createDynamicRequest() throws Exception {
+        Map<String, String> dynamicValues = new HashMap<>();
+        ObjectNode request = TestUtils.createDynamicRequest(templateKey, dynamicValues);
+        if (request.path("requestParameters").path("data").has("transactions")) {
+            TestUtils.updateTransactions(request, dynamicValues);
+        } else {
+            TestUtils.generateTraceNumber(request, dynamicValues);
+        }
+        return request;
+    }
+
+    @Benchmark
+    public byte[] createSignedRequestFromTree() throws Exception {
+        Map<String, String> dynamicValues = new HashMap<>();
+        ObjectNode request = TestUtils.createDynamicRequest(templateKey, dynamicValues);
+        if (request.path("requestParameters").path("data").has("transactions")) {
+            TestUtils.updateTransactions(request, dynamicValues);
+        } else {
+            TestUtils.generateTraceNumber(request, dynamicValues);
+        }
+        TestUtils.updateRequestBody(request);
+        return mapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public byte[] renderSignedRequestFromCompiledTemplate() {
+        return TestUtils.renderDynamicRequest(templateKey, new HashMap<>());
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chi phí serialize request body như trong PaymentOrderAPI/BulkTransactionCreateAPI:
+ * một lần compact cho HTTP body và bản pretty-print dùng để log/đính kèm Allure.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Param({"single", "10", "100", "1000"})
+    public String payload;
+
+    private ObjectNode request;
+
+    @Setup
+    public void setUp() throws Exception {
+        request = BenchmarkPayloads.build(payload, 2);
+    }
+
+    @Benchmark
+    public String writeCompact() throws Exception {
+        return mapper.writeValueAsString(request);
+    }
+
+    @Benchmark
+    public String writePretty() throws Exception {
+        return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(request);
+    }
+
+    @Benchmark
+    public byte[] writeBytes() throws Exception {
+        return mapper.writeValueAsBytes(request);
+    }
+}
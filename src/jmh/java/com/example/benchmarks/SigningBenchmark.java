@@ -0,0 +1,64 @@
+package com.example.benchmarks;
+
+import com.example.utils.SignatureUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chi phí băm data và ký CMS cho payload single/bulk với một hoặc hai authorizer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SigningBenchmark {
+    @Param({"single", "10", "100", "1000"})
+    public String payload;
+
+    @Param({"1", "2"})
+    public int authorizers;
+
+    private ObjectNode request;
+    private JsonNode data;
+
+    @Setup
+    public void setUp() throws Exception {
+        request = BenchmarkPayloads.build(payload, authorizers);
+        data = SignatureUtil.extractData(request);
+    }
+
+    @Benchmark
+    public String hashData() {
+        return SignatureUtil.hashDataWithSha256(data);
+    }
+
+    @Benchmark
+    public Map<String, String> signAllAuthorizations() {
+        return SignatureUtil.signAllAuthorizations(request);
+    }
+
+    @Benchmark
+    public String generateAuthorizationStringPerAuthorizer() throws Exception {
+        String last = null;
+        for (JsonNode auth : request.path("requestParameters").path("authorizations")) {
+            last = SignatureUtil.generateAuthorizationString(request, auth.path("authorizationId").asText());
+        }
+        return last;
+    }
+}
@@ -1,8 +1,12 @@
 package com.example;
 
+import com.fasterxml.jackson.annotation.JsonAnySetter;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class TestCase {
     @JsonProperty("testCaseId")
@@ -11,11 +15,29 @@ public class TestCase {
     @JsonProperty("description")
     private String description;
 
+    @JsonProperty("apiType")
+    private String apiType;
+
     @JsonProperty("requestTemplateKey")
     private String requestTemplateKey;
 
+    @JsonProperty("transactionTraceNumber")
+    private String transactionTraceNumber;
+
+    @JsonProperty("bulkTraceNumber")
+    private String bulkTraceNumber;
+
+    @JsonProperty("fromDate")
+    private String fromDate;
+
+    @JsonProperty("toDate")
+    private String toDate;
+
+    @JsonProperty("waitTime")
+    private Long waitTime;
+
     @JsonProperty("expectedStatusCode")
-    private int expectedStatusCode;
+    private Integer expectedStatusCode;
 
     @JsonProperty("expectedField")
     private String expectedField;
@@ -35,14 +57,58 @@ public class TestCase {
     @JsonProperty("testName")
     private String testName;
 
+    // Field chưa có trong model, giữ lại để handler vẫn đọc được qua toMap()
+    private final Map<String, Object> extra = new LinkedHashMap<>();
+
     public String getTestCaseId() { return testCaseId; }
     public String getDescription() { return description; }
+    public String getApiType() { return apiType; }
     public String getRequestTemplateKey() { return requestTemplateKey; }
-    public int getExpectedStatusCode() { return expectedStatusCode; }
+    public String getTransactionTraceNumber() { return transactionTraceNumber; }
+    public String getBulkTraceNumber() { return bulkTraceNumber; }
+    public String getFromDate() { return fromDate; }
+    public String getToDate() { return toDate; }
+    public Long getWaitTime() { return waitTime; }
+    public Integer getExpectedStatusCode() { return expectedStatusCode; }
     public String getExpectedField() { return expectedField; }
     public String getExpectedValue() { return expectedValue; }
     public String getExpectedErrorField() { return expectedErrorField; }
     public String getExpectedErrorMessage() { return expectedErrorMessage; }
     public List<String> getTags() { return tags; }
     public String getTestName() { return testName; }
-}
\ No newline at end of file
+
+    @JsonAnySetter
+    void setExtra(String name, Object value) {
+        extra.put(name, value);
+    }
+
+    /**
+     * Bản Map mới (có thể sửa) cho các handler nhận Map&lt;String, Object&gt;; chỉ chứa field có giá trị.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>(extra);
+        putIfPresent(map, "testCaseId", testCaseId);
+        putIfPresent(map, "description", description);
+        putIfPresent(map, "apiType", apiType);
+        putIfPresent(map, "requestTemplateKey", requestTemplateKey);
+        putIfPresent(map, "transactionTraceNumber", transactionTraceNumber);
+        putIfPresent(map, "bulkTraceNumber", bulkTraceNumber);
+        putIfPresent(map, "fromDate", fromDate);
+        putIfPresent(map, "toDate", toDate);
+        putIfPresent(map, "waitTime", waitTime);
+        putIfPresent(map, "expectedStatusCode", expectedStatusCode);
+        putIfPresent(map, "expectedField", expectedField);
+        putIfPresent(map, "expectedValue", expectedValue);
+        putIfPresent(map, "expectedErrorField", expectedErrorField);
+        putIfPresent(map, "expectedErrorMessage", expectedErrorMessage);
+        putIfPresent(map, "tags", tags);
+        putIfPresent(map, "testName", testName);
+        return map;
+    }
+
+    private static void putIfPresent(Map<String, Object> map, String name, Object value) {
+        if (value != null) {
+            map.put(name, value);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.api;
+
+/**
+ * Access token OIDC kèm thời điểm hết hạn tính từ expires_in.
+ */
+public class AccessToken {
+    // Coi token là hết hạn sớm hơn một chút để bù lệch đồng hồ và thời gian truyền request
+    private static final long EXPIRY_SKEW_MILLIS = 5_000;
+
+    private final String value;
+    private final long issuedAtMillis;
+    private final long expiresAtMillis;
+
+    public AccessToken(String value, long expiresInSeconds) {
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("access_token cannot be null or empty");
+        }
+        this.value = value;
+        this.issuedAtMillis = System.currentTimeMillis();
+        this.expiresAtMillis = issuedAtMillis + expiresInSeconds * 1000;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public long getLifetimeMillis() {
+        return expiresAtMillis - issuedAtMillis;
+    }
+
+    public boolean isExpired() {
+        return System.currentTimeMillis() >= expiresAtMillis - EXPIRY_SKEW_MILLIS;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.api;
+
+import com.example.config.APIConfig;
+import io.restassured.RestAssured;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.apache.http.client.HttpClient;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.HttpConnectionParams;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP client dùng chung cho các class trong com.example.api.
+ * Một connection pool keep-alive duy nhất (TLS session được giữ theo connection trong pool)
+ * và bộ header cố định X-Channel / X-Client-ID / X-Provider-ID được dựng sẵn một lần.
+ * Kích thước pool và timeout cấu hình bằng system property http.pool.maxTotal, http.pool.maxPerRoute,
+ * http.keepAliveSeconds, http.connectTimeoutMillis, http.socketTimeoutMillis.
+ */
+@SuppressWarnings("deprecation")
+public class ApiClient {
+    private static final int MAX_TOTAL = Integer.getInteger("http.pool.maxTotal", 50);
+    private static final int MAX_PER_ROUTE = Integer.getInteger("http.pool.maxPerRoute", 20);
+    private static final long KEEP_ALIVE_MILLIS = TimeUnit.SECONDS.toMillis(Long.getLong("http.keepAliveSeconds", 30));
+    static final int CONNECT_TIMEOUT_MILLIS = Integer.getInteger("http.connectTimeoutMillis", 10000);
+    static final int SOCKET_TIMEOUT_MILLIS = Integer.getInteger("http.socketTimeoutMillis", 60000);
+
+    private static final PoolingClientConnectionManager CONNECTION_MANAGER = createConnectionManager();
+
+    // RestAssured 5 thao tác trực tiếp trên params của AbstractHttpClient nên vẫn dùng DefaultHttpClient
+    private static final RestAssuredConfig CONFIG = RestAssuredConfig.config().httpClient(
+            HttpClientConfig.httpClientConfig()
+                    .reuseHttpClientInstance()
+                    .httpClientFactory(ApiClient::createHttpClient));
+
+    private static final RequestSpecification DEFAULT_SPEC = new RequestSpecBuilder()
+            .setConfig(CONFIG)
+            .addFilter(ApiMetrics.FILTER)
+            .addFilter(TrafficRecorder.FILTER)
+            .build();
+
+    // Cặp name/value header cố định, dùng chung cho client đồng bộ và AsyncApiClient
+    static final String[] PAYMENT_HEADERS = {
+            "X-Channel", "SOBA",
+            "X-Client-ID", APIConfig.CLIENT_ID,
+            "X-Provider-ID", "PIKA"
+    };
+
+    private static final RequestSpecification PAYMENT_SPEC = buildPaymentSpec();
+
+    /**
+     * Request không kèm header nghiệp vụ (dùng cho token endpoint).
+     */
+    public static RequestSpecification request() {
+        return RestAssured.given().spec(DEFAULT_SPEC);
+    }
+
+    /**
+     * Request tới payment-order API với header cố định, Authorization và X-Request-ID mới.
+     */
+    public static RequestSpecification paymentRequest(String token) {
+        return paymentRequest(token, UUID.randomUUID().toString());
+    }
+
+    public static RequestSpecification paymentRequest(String token, String requestId) {
+        return RestAssured.given().spec(PAYMENT_SPEC)
+                .header("Authorization", "Bearer " + token)
+                .header("X-Request-ID", requestId);
+    }
+
+    /**
+     * Đọc hết body để connection được trả về pool (RestAssured giữ connection cho tới khi body được đọc).
+     */
+    public static Response consume(Response response) {
+        response.getBody().asByteArray();
+        return response;
+    }
+
+    public static int getLeasedConnections() {
+        return CONNECTION_MANAGER.getTotalStats().getLeased();
+    }
+
+    public static int getAvailableConnections() {
+        return CONNECTION_MANAGER.getTotalStats().getAvailable();
+    }
+
+    private static RequestSpecification buildPaymentSpec() {
+        RequestSpecBuilder builder = new RequestSpecBuilder().setConfig(CONFIG)
+                .addFilter(ApiMetrics.FILTER)
+                .addFilter(TrafficRecorder.FILTER);
+        for (int i = 0; i < PAYMENT_HEADERS.length; i += 2) {
+            builder.addHeader(PAYMENT_HEADERS[i], PAYMENT_HEADERS[i + 1]);
+        }
+        return builder.build();
+    }
+
+    private static PoolingClientConnectionManager createConnectionManager() {
+        PoolingClientConnectionManager manager = new PoolingClientConnectionManager(SchemeRegistryFactory.createSystemDefault());
+        manager.setMaxTotal(MAX_TOTAL);
+        manager.setDefaultMaxPerRoute(MAX_PER_ROUTE);
+        return manager;
+    }
+
+    private static HttpClient createHttpClient() {
+        DefaultHttpClient client = new DefaultHttpClient(CONNECTION_MANAGER);
+        HttpConnectionParams.setConnectionTimeout(client.getParams(), CONNECT_TIMEOUT_MILLIS);
+        HttpConnectionParams.setSoTimeout(client.getParams(), SOCKET_TIMEOUT_MILLIS);
+        ConnectionKeepAliveStrategy serverStrategy = DefaultConnectionKeepAliveStrategy.INSTANCE;
+        client.setKeepAliveStrategy((response, context) -> {
+            // Ưu tiên header Keep-Alive của server, nếu không có thì giữ connection theo cấu hình
+            long serverKeepAlive = serverStrategy.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, KEEP_ALIVE_MILLIS) : KEEP_ALIVE_MILLIS;
+        });
+        return client;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.api;
+
+import com.example.utils.Metrics;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.net.URI;
+
+/**
+ * Gán tên endpoint cho metric theo method + path và ghi độ trễ/status vào {@link Metrics}.
+ * Client đồng bộ ghi qua RestAssured filter gắn sẵn trong spec của {@link ApiClient}, client async ghi trong
+ * {@link AsyncApiClient}, nên mọi API wrapper được đo mà không cần sửa từng chỗ gọi.
+ */
+public class ApiMetrics {
+    public static final String TOKEN = "token";
+    public static final String TRANSACTION_CREATE = "transaction_create";
+    public static final String TRANSACTION_TRACE = "transaction_trace";
+    public static final String BULK_CREATE = "bulk_create";
+    public static final String BULK_QUERY = "bulk_query";
+    public static final String OTHER = "other";
+
+    static final Filter FILTER = new MetricsFilter();
+
+    /**
+     * Tên endpoint cho metric; URL có thể kèm query string.
+     */
+    public static String endpointOf(String method, String url) {
+        String path = URI.create(url).getPath();
+        boolean isGet = "GET".equalsIgnoreCase(method);
+        if (path.endsWith("/token")) {
+            return TOKEN;
+        }
+        if (path.endsWith("/bulk-transaction")) {
+            return isGet ? BULK_QUERY : BULK_CREATE;
+        }
+        if (path.endsWith("/transaction")) {
+            return isGet ? TRANSACTION_TRACE : TRANSACTION_CREATE;
+        }
+        return OTHER;
+    }
+
+    static void record(String method, String url, int status, long durationNanos) {
+        Metrics.recordRequest(endpointOf(method, url), status, durationNanos);
+    }
+
+    private static class MetricsFilter implements Filter {
+        @Override
+        public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                               FilterContext ctx) {
+            long start = System.nanoTime();
+            Response response;
+            try {
+                response = ctx.next(requestSpec, responseSpec);
+            } catch (Throwable e) {
+                // RestAssured ném lại IOException (UnknownHostException, timeout...) dạng sneaky throw
+                record(requestSpec.getMethod(), requestSpec.getURI(), 0, System.nanoTime() - start);
+                throw e;
+            }
+            record(requestSpec.getMethod(), requestSpec.getURI(), response.getStatusCode(), System.nanoTime() - start);
+            return response;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.api;
+
+import com.example.utils.LoggerUtil;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * HTTP client non-blocking (java.net.http) cho các biến thể *Async của API.
+ * Request được gửi qua NIO nên một process có thể giữ hàng nghìn request đang chờ mà không cần
+ * một thread cho mỗi request. Response được chuyển thành RestAssured {@link Response} để
+ * caller dùng chung then()/jsonPath() như bản đồng bộ.
+ */
+public class AsyncApiClient {
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofMillis(ApiClient.CONNECT_TIMEOUT_MILLIS))
+            .build();
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMillis(ApiClient.SOCKET_TIMEOUT_MILLIS);
+
+    public static CompletableFuture<Response> postJson(String url, String token, String jsonBody) {
+        HttpRequest request = paymentRequest(url, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(jsonBody, StandardCharsets.UTF_8))
+                .build();
+        return send(request, jsonBody);
+    }
+
+    public static CompletableFuture<Response> get(String url, String token) {
+        HttpRequest request = paymentRequest(url, token)
+                .header("Content-Type", "application/json")
+                .GET()
+                .build();
+        return send(request, null);
+    }
+
+    public static CompletableFuture<Response> postForm(String url, Map<String, String> formParams) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(encode(formParams)))
+                .build();
+        // Form token chứa client secret nên không đưa vào traffic capture
+        return send(request, null);
+    }
+
+    /**
+     * Nối query string đã URL-encode vào endpoint.
+     */
+    public static String withQuery(String endpoint, Map<String, String> queryParams) {
+        return queryParams.isEmpty() ? endpoint : endpoint + "?" + encode(queryParams);
+    }
+
+    private static HttpRequest.Builder paymentRequest(String url, String token) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .headers(ApiClient.PAYMENT_HEADERS)
+                .header("Authorization", "Bearer " + token)
+                .header("X-Request-ID", UUID.randomUUID().toString());
+    }
+
+    private static CompletableFuture<Response> send(HttpRequest request, String requestBody) {
+        long start = System.nanoTime();
+        return CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+                .whenComplete((httpResponse, error) -> {
+                    int status = httpResponse == null ? 0 : httpResponse.statusCode();
+                    ApiMetrics.record(request.method(), request.uri().toString(), status, System.nanoTime() - start);
+                    TrafficRecorder.record(request.method(), request.uri().toString(), requestBody, start, status,
+                            httpResponse == null ? null : httpResponse.body(), true);
+                })
+                .thenApply(httpResponse -> {
+                    long latencyMillis = (System.nanoTime() - start) / 1_000_000;
+                    // Bản async chỉ ghi summary; capture.level=off tắt cả dòng này
+                    if (PayloadCapture.isEnabled()) {
+                        LoggerUtil.info("Async {} {} - Status Code: {} in {} ms", request.method(), request.uri(),
+                                httpResponse.statusCode(), latencyMillis);
+                    }
+                    LoggerUtil.event("api_call")
+                            .field("method", request.method())
+                            .field("endpoint", request.uri().toString())
+                            .field("requestId", request.headers().firstValue("X-Request-ID").orElse(null))
+                            .field("status", httpResponse.statusCode())
+                            .field("latencyMs", latencyMillis)
+                            .field("async", true)
+                            .log();
+                    return toResponse(httpResponse);
+                })
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        LoggerUtil.error("Async {} {} failed: {}", request.method(), request.uri(), error.getMessage());
+                    }
+                });
+    }
+
+    private static Response toResponse(HttpResponse<String> httpResponse) {
+        List<Header> headers = new ArrayList<>();
+        httpResponse.headers().map().forEach((name, values) -> values.forEach(value -> headers.add(new Header(name, value))));
+        ResponseBuilder builder = new ResponseBuilder()
+                .setStatusCode(httpResponse.statusCode())
+                .setStatusLine(httpResponse.version() + " " + httpResponse.statusCode())
+                .setHeaders(new Headers(headers))
+                .setBody(httpResponse.body());
+        httpResponse.headers().firstValue("Content-Type").ifPresent(builder::setContentType);
+        return builder.build();
+    }
+
+    private static String encode(Map<String, String> params) {
+        StringJoiner joiner = new StringJoiner("&");
+        params.forEach((name, value) -> joiner.add(URLEncoder.encode(name, StandardCharsets.UTF_8) + "="
+                + URLEncoder.encode(value == null ? "" : value, StandardCharsets.UTF_8)));
+        return joiner.toString();
+    }
+}
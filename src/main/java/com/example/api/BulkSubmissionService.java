@@ -0,0 +1,285 @@
+package com.example.api;
+
+import com.example.utils.LoggerUtil;
+import com.example.utils.SignatureUtil;
+import com.example.utils.TraceNumberGenerator;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.restassured.response.Response;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Tách một bulk request lớn thành nhiều bulk nhỏ (mỗi bulk có bulkTraceNumber, requestTrace và chữ ký riêng)
+ * rồi gửi song song có giới hạn. Chunk kế tiếp được dựng, ký và serialize trong lúc các chunk trước đang chờ
+ * response, nên chi phí CPU phía client chồng lên thời gian chờ mạng.
+ * Kích thước chunk và số chunk đồng thời mặc định đọc từ bulk.chunkSize và bulk.maxConcurrency.
+ */
+public class BulkSubmissionService {
+    private static final String CREATE_BULK_STATUS = "responseData.bulkTransaction.bulkStatus";
+    private static final JsonPointer DATA = JsonPointer.compile("/requestParameters/data");
+
+    private final int chunkSize;
+    private final int maxConcurrency;
+    private final Supplier<String> bulkTraceNumbers;
+    private final TokenManager tokens;
+    private final BiFunction<String, ObjectNode, CompletableFuture<Response>> createBulk;
+
+    public BulkSubmissionService(int chunkSize, int maxConcurrency, Supplier<String> bulkTraceNumbers) {
+        this(chunkSize, maxConcurrency, bulkTraceNumbers, TokenManager.getInstance(),
+                BulkTransactionCreateAPI::createBulkTransactionAsync);
+    }
+
+    /**
+     * createBulk nhận (token, chunk request) và gửi chunk; tách ra để test trỏ tới stub riêng thay vì {@code APIConfig}.
+     */
+    BulkSubmissionService(int chunkSize, int maxConcurrency, Supplier<String> bulkTraceNumbers, TokenManager tokens,
+                          BiFunction<String, ObjectNode, CompletableFuture<Response>> createBulk) {
+        if (chunkSize < 1 || maxConcurrency < 1) {
+            throw new IllegalArgumentException("chunkSize and maxConcurrency must be at least 1: chunkSize="
+                    + chunkSize + ", maxConcurrency=" + maxConcurrency);
+        }
+        if (bulkTraceNumbers == null) {
+            throw new IllegalArgumentException("bulkTraceNumbers supplier is required");
+        }
+        this.chunkSize = chunkSize;
+        this.maxConcurrency = maxConcurrency;
+        this.bulkTraceNumbers = bulkTraceNumbers;
+        this.tokens = tokens;
+        this.createBulk = createBulk;
+    }
+
+    /**
+     * bulkTraceNumber lấy từ {@link TraceNumberGenerator#getDefault()}.
+     */
+    public static BulkSubmissionService fromSystemProperties() {
+        return fromSystemProperties(TraceNumberGenerator.getDefault()::nextBulk);
+    }
+
+    public static BulkSubmissionService fromSystemProperties(Supplier<String> bulkTraceNumbers) {
+        return new BulkSubmissionService(Integer.getInteger("bulk.chunkSize", 500),
+                Integer.getInteger("bulk.maxConcurrency", 4), bulkTraceNumbers);
+    }
+
+    /**
+     * Gửi toàn bộ requestParameters.data.transactions của bulkRequest theo từng chunk. bulkRequest không bị sửa;
+     * mỗi chunk là bản sao với danh sách transactions con. Chunk lỗi không làm dừng các chunk còn lại.
+     */
+    public Result submit(ObjectNode bulkRequest) throws InterruptedException {
+        JsonNode transactions = bulkRequest.at(DATA).path("transactions");
+        if (!transactions.isArray() || transactions.isEmpty()) {
+            throw new IllegalArgumentException("requestParameters.data.transactions must be a non-empty array");
+        }
+        int total = transactions.size();
+        int chunkCount = (total + chunkSize - 1) / chunkSize;
+        LoggerUtil.info("Submitting {} transactions as {} bulks of up to {} (max {} in flight)",
+                total, chunkCount, chunkSize, maxConcurrency);
+
+        // Template không có transactions để mỗi chunk chỉ copy phần chung rồi gắn mảng con
+        ObjectNode template = bulkRequest.deepCopy();
+        ((ObjectNode) template.at(DATA)).remove("transactions");
+
+        long start = System.nanoTime();
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<CompletableFuture<ChunkResult>> pending = new ArrayList<>(chunkCount);
+        for (int index = 0; index < chunkCount; index++) {
+            permits.acquire();
+            int from = index * chunkSize;
+            int to = Math.min(total, from + chunkSize);
+            CompletableFuture<ChunkResult> chunk = submitChunk(index, template, (ArrayNode) transactions, from, to);
+            chunk.whenComplete((result, error) -> permits.release());
+            pending.add(chunk);
+        }
+
+        List<ChunkResult> chunks = new ArrayList<>(chunkCount);
+        for (CompletableFuture<ChunkResult> chunk : pending) {
+            chunks.add(chunk.join());
+        }
+        Result result = new Result(chunks, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        LoggerUtil.info("Bulk submission finished: {}/{} chunks accepted, {}/{} transactions, {} ms",
+                chunkCount - result.getFailedChunks().size(), chunkCount, result.getAcceptedTransactions(), total,
+                result.getElapsedMillis());
+        return result;
+    }
+
+    private CompletableFuture<ChunkResult> submitChunk(int index, ObjectNode template, ArrayNode transactions, int from, int to) {
+        int count = to - from;
+        long start = System.nanoTime();
+        String bulkTraceNumber = null;
+        ObjectNode chunkRequest;
+        try {
+            bulkTraceNumber = bulkTraceNumbers.get();
+            chunkRequest = template.deepCopy();
+            chunkRequest.put("requestTrace", UUID.randomUUID().toString());
+            chunkRequest.put("requestDateTime", OffsetDateTime.now().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+            ObjectNode data = (ObjectNode) chunkRequest.at(DATA);
+            data.put("bulkTraceNumber", bulkTraceNumber);
+            ArrayNode chunkTransactions = data.putArray("transactions");
+            for (int i = from; i < to; i++) {
+                chunkTransactions.add(transactions.get(i));
+            }
+            SignatureUtil.signAllAuthorizations(chunkRequest);
+        } catch (RuntimeException e) {
+            LoggerUtil.error("Failed to build bulk chunk {} ({}): {}", index, bulkTraceNumber, e.getMessage());
+            return CompletableFuture.completedFuture(new ChunkResult(index, bulkTraceNumber, count, 0, null,
+                    e.toString(), elapsedMillis(start)));
+        }
+
+        ObjectNode request = chunkRequest;
+        String chunkTraceNumber = bulkTraceNumber;
+        // executeAsync trả lỗi lấy token dưới dạng future lỗi, nên chunk lỗi token cũng đi qua handle như lỗi mạng
+        return tokens.executeAsync(token -> createBulk.apply(token, request))
+                .handle((response, error) -> {
+                    if (error != null) {
+                        Throwable cause = error.getCause() != null ? error.getCause() : error;
+                        LoggerUtil.error("Bulk chunk {} ({}) failed: {}", index, chunkTraceNumber, cause.getMessage());
+                        return new ChunkResult(index, chunkTraceNumber, count, 0, null, cause.toString(), elapsedMillis(start));
+                    }
+                    boolean accepted = response.getStatusCode() == 200;
+                    String bulkStatus = accepted ? ResponseJson.text(response, CREATE_BULK_STATUS) : null;
+                    String failure = accepted ? null
+                            : "HTTP " + response.getStatusCode() + ": " + response.getBody().asString();
+                    return new ChunkResult(index, chunkTraceNumber, count, response.getStatusCode(), bulkStatus,
+                            failure, elapsedMillis(start));
+                });
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Kết quả của một chunk; failure là null khi chunk được nhận (HTTP 200).
+     */
+    public static class ChunkResult {
+        private final int index;
+        private final String bulkTraceNumber;
+        private final int transactionCount;
+        private final int statusCode;
+        private final String bulkStatus;
+        private final String failure;
+        private final long latencyMillis;
+
+        ChunkResult(int index, String bulkTraceNumber, int transactionCount, int statusCode, String bulkStatus,
+                    String failure, long latencyMillis) {
+            this.index = index;
+            this.bulkTraceNumber = bulkTraceNumber;
+            this.transactionCount = transactionCount;
+            this.statusCode = statusCode;
+            this.bulkStatus = bulkStatus;
+            this.failure = failure;
+            this.latencyMillis = latencyMillis;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getBulkTraceNumber() {
+            return bulkTraceNumber;
+        }
+
+        public int getTransactionCount() {
+            return transactionCount;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public String getBulkStatus() {
+            return bulkStatus;
+        }
+
+        public String getFailure() {
+            return failure;
+        }
+
+        public long getLatencyMillis() {
+            return latencyMillis;
+        }
+
+        public boolean isAccepted() {
+            return failure == null;
+        }
+
+        @Override
+        public String toString() {
+            return "chunk " + index + " " + bulkTraceNumber + " (" + transactionCount + " transactions): "
+                    + (isAccepted() ? "HTTP " + statusCode + " " + bulkStatus : failure) + " in " + latencyMillis + " ms";
+        }
+    }
+
+    /**
+     * Kết quả tổng hợp, chunk được sắp theo thứ tự trong request gốc.
+     */
+    public static class Result {
+        private final List<ChunkResult> chunks;
+        private final long elapsedMillis;
+
+        Result(List<ChunkResult> chunks, long elapsedMillis) {
+            this.chunks = Collections.unmodifiableList(chunks);
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public List<ChunkResult> getChunks() {
+            return chunks;
+        }
+
+        public List<ChunkResult> getFailedChunks() {
+            List<ChunkResult> failed = new ArrayList<>();
+            for (ChunkResult chunk : chunks) {
+                if (!chunk.isAccepted()) {
+                    failed.add(chunk);
+                }
+            }
+            return failed;
+        }
+
+        public List<String> getBulkTraceNumbers() {
+            List<String> traceNumbers = new ArrayList<>(chunks.size());
+            for (ChunkResult chunk : chunks) {
+                traceNumbers.add(chunk.getBulkTraceNumber());
+            }
+            return traceNumbers;
+        }
+
+        public int getTotalTransactions() {
+            int total = 0;
+            for (ChunkResult chunk : chunks) {
+                total += chunk.getTransactionCount();
+            }
+            return total;
+        }
+
+        public int getAcceptedTransactions() {
+            int accepted = 0;
+            for (ChunkResult chunk : chunks) {
+                if (chunk.isAccepted()) {
+                    accepted += chunk.getTransactionCount();
+                }
+            }
+            return accepted;
+        }
+
+        public boolean isSuccessful() {
+            return getFailedChunks().isEmpty();
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+}
@@ -2,45 +2,49 @@ package com.example.api;
 
 import com.example.config.APIConfig;
 import com.example.utils.LoggerUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.qameta.allure.Allure;
-import io.restassured.RestAssured;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 
+import java.util.concurrent.CompletableFuture;
+
 public class BulkTransactionCreateAPI {
-    private static final String BULK_TRANSACTION_ENDPOINT = APIConfig.BASE_URL + "/payments/payment-order/v2/bulk-transaction";
     private static final ObjectMapper mapper = new ObjectMapper();
 
     public static Response createBulkTransaction(String token, Object requestBody) throws Exception {
-        RequestSpecification request = RestAssured.given()
-                .header("Authorization", "Bearer " + token)
-                .header("X-Channel", "SOBA")
-                .header("X-Client-ID", APIConfig.CLIENT_ID)
-                .header("X-Provider-ID", "PIKA")
-                .header("X-Request-ID", java.util.UUID.randomUUID().toString())
+        String endpoint = APIConfig.bulkTransactionEndpoint();
+        RequestSpecification request = ApiClient.paymentRequest(token)
                 .contentType("application/json")
                 .body(mapper.writeValueAsString(requestBody));
-
-        // Log request
-        LoggerUtil.info("Sending Bulk Transaction Request to: {}", BULK_TRANSACTION_ENDPOINT);
-        LoggerUtil.info("Request Headers: {}", request.log().headers().toString());
-        LoggerUtil.info("Request Body: \n{}", mapper.writerWithDefaultPrettyPrinter().writeValueAsString(requestBody));
-        Allure.addAttachment("Bulk Transaction Request - URL", BULK_TRANSACTION_ENDPOINT);
-        Allure.addAttachment("Bulk Transaction Request - Headers", request.log().headers().toString());
-        Allure.addAttachment("Bulk Transaction Request - Body", "application/json", mapper.writerWithDefaultPrettyPrinter().writeValueAsString(requestBody));
+        PayloadCapture.Exchange capture = PayloadCapture.start("Bulk Transaction", "POST", endpoint, request)
+                .requestBody(requestBody);
 
         // Gửi yêu cầu
-        Response response = request.post(BULK_TRANSACTION_ENDPOINT);
+        return capture.complete(ApiClient.consume(request.post(endpoint)));
+    }
 
-        // Log response
-        LoggerUtil.info("Bulk Transaction Response - Status Code: {}", response.getStatusCode());
-        LoggerUtil.info("Bulk Transaction Response - Headers: {}", response.getHeaders());
-        LoggerUtil.info("Bulk Transaction Response - Body: \n{}", response.getBody().asPrettyString());
-        Allure.addAttachment("Bulk Transaction Response - Status Code", String.valueOf(response.getStatusCode()));
-        Allure.addAttachment("Bulk Transaction Response - Headers", response.getHeaders().toString());
-        Allure.addAttachment("Bulk Transaction Response - Body", "application/json", response.getBody().asPrettyString());
+    public static CompletableFuture<Response> createBulkTransactionAsync(String token, Object requestBody) {
+        String endpoint = APIConfig.bulkTransactionEndpoint();
+        LoggerUtil.info("Sending async Bulk Transaction Request to: {}", endpoint);
+        try {
+            return AsyncApiClient.postJson(endpoint, token, mapper.writeValueAsString(requestBody));
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Body đã dựng sẵn dạng byte JSON UTF-8 (vd. từ {@link com.example.utils.CompiledTemplate}), gửi không qua Jackson.
+     */
+    public static Response createBulkTransaction(String token, byte[] requestBody) {
+        String endpoint = APIConfig.bulkTransactionEndpoint();
+        RequestSpecification request = ApiClient.paymentRequest(token)
+                .contentType("application/json")
+                .body(requestBody);
+        PayloadCapture.Exchange capture = PayloadCapture.start("Bulk Transaction", "POST", endpoint, request)
+                .requestBody(requestBody);
 
-        return response;
+        return capture.complete(ApiClient.consume(request.post(endpoint)));
     }
-}
\ No newline at end of file
+}
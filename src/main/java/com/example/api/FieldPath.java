@@ -0,0 +1,158 @@
+package com.example.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Biểu thức field kiểu GPath dùng trong test case (vd. responseData.bulkTransactions[0].bulkStatus), được compile
+ * một lần và cache theo chuỗi biểu thức. Như GPath, mỗi bước cho ra đúng một giá trị: tên field áp lên object lấy
+ * field đó, áp lên mảng thì gom field đó của từng phần tử thành mảng mới (responseData.bulkTransactions.bulkStatus
+ * là danh sách bulkStatus, phần tử thiếu field là null); [n] luôn lấy phần tử thứ n của giá trị hiện tại
+ * (n âm tính từ cuối), nên kết quả không phụ thuộc vào số phần tử mà các bước trước khớp.
+ */
+public class FieldPath {
+    private static final Map<String, FieldPath> CACHE = new ConcurrentHashMap<>();
+
+    private final String expression;
+    private final List<Step> steps;
+
+    private FieldPath(String expression, List<Step> steps) {
+        this.expression = expression;
+        this.steps = steps;
+    }
+
+    public static FieldPath compile(String expression) {
+        FieldPath cached = CACHE.get(expression);
+        if (cached != null) {
+            return cached;
+        }
+        FieldPath compiled = new FieldPath(expression, parse(expression));
+        FieldPath existing = CACHE.putIfAbsent(expression, compiled);
+        return existing != null ? existing : compiled;
+    }
+
+    /**
+     * Giá trị của biểu thức; MissingNode khi không có.
+     */
+    public JsonNode evaluate(JsonNode root) {
+        JsonNode current = root;
+        for (Step step : steps) {
+            current = step.apply(current);
+            if (current.isMissingNode()) {
+                break;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Giá trị dạng chuỗi; mảng (từ JSON hoặc từ phép lấy field trên mảng) trả về phần tử khác null đầu tiên,
+     * nên field đơn và field nằm trong mảng được so sánh như nhau. null khi không có giá trị.
+     */
+    public String firstText(JsonNode root) {
+        JsonNode value = evaluate(root);
+        if (value.isArray()) {
+            for (JsonNode element : value) {
+                if (!element.isNull()) {
+                    return text(element);
+                }
+            }
+            return null;
+        }
+        return value.isMissingNode() || value.isNull() ? null : text(value);
+    }
+
+    private static String text(JsonNode value) {
+        return value.isValueNode() ? value.asText() : value.toString();
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    private static List<Step> parse(String expression) {
+        if (expression == null || expression.trim().isEmpty()) {
+            throw new IllegalArgumentException("Field expression must not be empty");
+        }
+        List<Step> steps = new ArrayList<>();
+        for (String segment : expression.trim().split("\\.", -1)) {
+            int bracket = segment.indexOf('[');
+            String name = bracket < 0 ? segment : segment.substring(0, bracket);
+            if (name.isEmpty() && bracket != 0) {
+                throw new IllegalArgumentException("Empty field name in expression: " + expression);
+            }
+            if (!name.isEmpty()) {
+                steps.add(new FieldStep(name));
+            }
+            while (bracket >= 0) {
+                int close = segment.indexOf(']', bracket);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Unclosed '[' in expression: " + expression);
+                }
+                try {
+                    steps.add(new IndexStep(Integer.parseInt(segment.substring(bracket + 1, close).trim())));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid index in expression: " + expression, e);
+                }
+                bracket = segment.indexOf('[', close);
+                if (bracket < 0 && close != segment.length() - 1) {
+                    throw new IllegalArgumentException("Unexpected characters after ']' in expression: " + expression);
+                }
+            }
+        }
+        return Collections.unmodifiableList(steps);
+    }
+
+    private interface Step {
+        JsonNode apply(JsonNode current);
+    }
+
+    private static class FieldStep implements Step {
+        private final String name;
+
+        FieldStep(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public JsonNode apply(JsonNode current) {
+            if (current.isArray()) {
+                ArrayNode collected = JsonNodeFactory.instance.arrayNode(current.size());
+                for (JsonNode element : current) {
+                    JsonNode value = element.get(name);
+                    collected.add(value == null ? NullNode.getInstance() : value);
+                }
+                return collected;
+            }
+            JsonNode value = current.get(name);
+            return value == null ? MissingNode.getInstance() : value;
+        }
+    }
+
+    private static class IndexStep implements Step {
+        private final int index;
+
+        IndexStep(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public JsonNode apply(JsonNode current) {
+            if (!current.isArray()) {
+                return MissingNode.getInstance();
+            }
+            JsonNode element = current.get(index < 0 ? current.size() + index : index);
+            return element == null ? MissingNode.getInstance() : element;
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.example.api;
+
+import com.example.utils.LoggerUtil;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.qameta.allure.Allure;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.RequestSpecification;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Mức ghi payload request/response dùng chung cho các class trong com.example.api, cấu hình bằng
+ * system property capture.level = off | summary | full | sampled-N (N% số lần gọi được ghi full, còn lại summary).
+ * Header và body chỉ được serialize khi có sink cần đến (log INFO đang bật hoặc Allure đang chạy test),
+ * mỗi payload tối đa một lần dù được ghi ra cả log lẫn Allure, và mỗi exchange chỉ được ghi log và đính kèm
+ * Allure một lần dù được publish nhiều lần (API wrapper rồi step của test).
+ * Event JSON api_call (logger API_EVENT) được ghi cho mọi mức capture, bật/tắt bằng cấu hình logback.
+ */
+public class PayloadCapture {
+    public enum Level { OFF, SUMMARY, FULL, SAMPLED }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ThreadLocal<Exchange> LAST_EXCHANGE = new ThreadLocal<>();
+    private static final JsonPointer REQUEST_TRACE = JsonPointer.compile("/requestTrace");
+    private static final JsonPointer TRANSACTION_TRACE_NUMBER = JsonPointer.compile("/requestParameters/data/transaction/transactionTraceNumber");
+    private static final JsonPointer BULK_TRACE_NUMBER = JsonPointer.compile("/requestParameters/data/bulkTraceNumber");
+    private static final JsonPointer BULK_TRANSACTIONS = JsonPointer.compile("/requestParameters/data/transactions");
+
+    private static volatile Level level;
+    private static volatile int samplePercent;
+
+    static {
+        configure(System.getProperty("capture.level", "full"));
+    }
+
+    public static void configure(String spec) {
+        String value = spec == null ? "" : spec.trim().toLowerCase(Locale.ROOT);
+        if (value.startsWith("sampled")) {
+            String percent = value.substring("sampled".length()).replace("-", "").replace("%", "").trim();
+            int parsed;
+            try {
+                parsed = percent.isEmpty() ? 10 : Integer.parseInt(percent);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid capture.level: " + spec, e);
+            }
+            if (parsed < 0 || parsed > 100) {
+                throw new IllegalArgumentException("Sample percent must be between 0 and 100: " + spec);
+            }
+            samplePercent = parsed;
+            level = Level.SAMPLED;
+            return;
+        }
+        switch (value) {
+            case "off":
+                level = Level.OFF;
+                break;
+            case "summary":
+                level = Level.SUMMARY;
+                break;
+            case "full":
+                level = Level.FULL;
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid capture.level (expected off, summary, full or sampled-N): " + spec);
+        }
+    }
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    public static int getSamplePercent() {
+        return samplePercent;
+    }
+
+    public static boolean isEnabled() {
+        return level != Level.OFF;
+    }
+
+    /**
+     * Bắt đầu ghi một lần gọi API; quyết định full/summary (theo sampling) được chốt tại đây.
+     */
+    public static Exchange start(String name, String method, String url) {
+        Exchange exchange = new Exchange(name, method, url, isFullCapture());
+        LAST_EXCHANGE.set(exchange);
+        return exchange;
+    }
+
+    /**
+     * Như {@link #start(String, String, String)}, lấy header và X-Request-ID từ request spec đã dựng.
+     */
+    public static Exchange start(String name, String method, String url, RequestSpecification request) {
+        FilterableRequestSpecification spec = (FilterableRequestSpecification) request;
+        return start(name, method, url)
+                .requestHeaders(() -> spec.getHeaders().toString())
+                .field("requestId", spec.getHeaders().getValue("X-Request-ID"));
+    }
+
+    /**
+     * Exchange đã ghi chính response này trên thread hiện tại (để dùng lại payload đã serialize),
+     * hoặc một exchange mới chỉ bọc response nếu response không đi qua API wrapper (được nhớ lại như exchange
+     * cuối để lần gọi sau với cùng response không ghi lại).
+     */
+    public static Exchange forResponse(Response response) {
+        Exchange last = LAST_EXCHANGE.get();
+        if (last != null && last.response == response) {
+            return last;
+        }
+        Exchange exchange = new Exchange("", null, null, isFullCapture());
+        exchange.response = response;
+        LAST_EXCHANGE.set(exchange);
+        return exchange;
+    }
+
+    private static boolean isFullCapture() {
+        Level current = level;
+        return current == Level.FULL
+                || (current == Level.SAMPLED && ThreadLocalRandom.current().nextInt(100) < samplePercent);
+    }
+
+    private static boolean isAllureActive() {
+        return Allure.getLifecycle().getCurrentTestCaseOrStep().isPresent();
+    }
+
+    public static class Exchange {
+        private final String name;
+        private final String method;
+        private final String url;
+        private final boolean full;
+        private final long startNanos = System.nanoTime();
+        private Lazy requestHeaders;
+        private Lazy requestBody;
+        private Lazy queryParams;
+        private Lazy responseBody;
+        private final Map<String, Object> fields = new LinkedHashMap<>();
+        private Response response;
+        private long elapsedMillis = -1;
+        private boolean logged;
+        private boolean attached;
+
+        Exchange(String name, String method, String url, boolean full) {
+            this.name = name;
+            this.method = method;
+            this.url = url;
+            this.full = full;
+        }
+
+        public boolean isFull() {
+            return full;
+        }
+
+        /**
+         * Trường bổ sung cho event api_call (trace number, X-Request-ID...).
+         */
+        public Exchange field(String fieldName, Object value) {
+            if (value != null) {
+                fields.put(fieldName, value);
+            }
+            return this;
+        }
+
+        public Exchange requestHeaders(Supplier<String> headers) {
+            requestHeaders = new Lazy(headers);
+            return this;
+        }
+
+        public Exchange queryParams(Supplier<String> params) {
+            queryParams = new Lazy(params);
+            return this;
+        }
+
+        /**
+         * Body dạng String (hoặc byte[] UTF-8) được ghi nguyên văn, object khác được pretty-print bằng Jackson khi cần.
+         */
+        public Exchange requestBody(Object body) {
+            if (body instanceof JsonNode) {
+                traceFields((JsonNode) body);
+            }
+            requestBody = body == null ? null : new Lazy(() -> {
+                if (body instanceof String) {
+                    return (String) body;
+                }
+                if (body instanceof byte[]) {
+                    return new String((byte[]) body, StandardCharsets.UTF_8);
+                }
+                try {
+                    return MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(body);
+                } catch (Exception e) {
+                    return String.valueOf(body);
+                }
+            });
+            return this;
+        }
+
+        public boolean hasRequestBody() {
+            return requestBody != null;
+        }
+
+        /**
+         * Ghi nhận response và xuất ra log/Allure theo capture level.
+         */
+        public Response complete(Response response) {
+            this.response = response;
+            this.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            publish(name);
+            LoggerUtil.Event event = LoggerUtil.event("api_call")
+                    .field("name", name)
+                    .field("method", method)
+                    .field("endpoint", url)
+                    .field("status", response.getStatusCode())
+                    .field("latencyMs", elapsedMillis)
+                    .field("full", full);
+            fields.forEach(event::field);
+            event.log();
+            return response;
+        }
+
+        private void traceFields(JsonNode body) {
+            field("requestTrace", textAt(body, REQUEST_TRACE));
+            field("transactionTraceNumber", textAt(body, TRANSACTION_TRACE_NUMBER));
+            field("bulkTraceNumber", textAt(body, BULK_TRACE_NUMBER));
+            JsonNode transactions = body.at(BULK_TRANSACTIONS);
+            if (transactions.isArray()) {
+                field("transactionCount", transactions.size());
+            }
+        }
+
+        private static String textAt(JsonNode body, JsonPointer pointer) {
+            JsonNode value = body.at(pointer);
+            return value.isValueNode() ? value.asText() : null;
+        }
+
+        /**
+         * Xuất exchange với nhãn cho trước. Log và Allure mỗi thứ chỉ ghi một lần cho mỗi exchange; lần publish sau
+         * (ví dụ lại trong @Step) chỉ ghi phần chưa ghi, chẳng hạn khi lần trước chưa có test Allure nào đang chạy.
+         */
+        public void publish(String label) {
+            if (level == Level.OFF) {
+                return;
+            }
+            String prefix = label == null || label.isEmpty() ? "" : label + " ";
+            if (!logged && LoggerUtil.isInfoEnabled()) {
+                logged = true;
+                LoggerUtil.info("{}", summary(prefix));
+                if (full) {
+                    logIfPresent(prefix + "Request Headers: {}", requestHeaders);
+                    logIfPresent(prefix + "Request Query Params: {}", queryParams);
+                    logIfPresent(prefix + "Request Body: \n{}", requestBody);
+                    if (response != null) {
+                        LoggerUtil.info(prefix + "Response - Headers: {}", response.getHeaders());
+                        LoggerUtil.info(prefix + "Response - Body: \n{}", responseBody().get());
+                    }
+                }
+            }
+            if (!attached && isAllureActive()) {
+                attached = true;
+                if (!full) {
+                    Allure.addAttachment(prefix + "Summary", summary(prefix));
+                    return;
+                }
+                if (url != null) {
+                    Allure.addAttachment(prefix + "Request - URL", url);
+                }
+                attachIfPresent(prefix + "Request - Headers", null, requestHeaders);
+                attachIfPresent(prefix + "Request - Query Params", null, queryParams);
+                attachIfPresent(prefix + "Request - Body", "application/json", requestBody);
+                if (response != null) {
+                    Allure.addAttachment(prefix + "Response - Status Code", String.valueOf(response.getStatusCode()));
+                    Allure.addAttachment(prefix + "Response - Headers", response.getHeaders().toString());
+                    Allure.addAttachment(prefix + "Response - Body", "application/json", responseBody().get());
+                }
+            }
+        }
+
+        private Lazy responseBody() {
+            if (responseBody == null) {
+                Response current = response;
+                responseBody = new Lazy(() -> current.getBody().asPrettyString());
+            }
+            return responseBody;
+        }
+
+        private String summary(String prefix) {
+            StringBuilder builder = new StringBuilder(prefix);
+            if (method != null) {
+                builder.append(method).append(' ').append(url).append(' ');
+            }
+            if (response != null) {
+                builder.append("- Status Code: ").append(response.getStatusCode());
+                if (elapsedMillis >= 0) {
+                    builder.append(" in ").append(elapsedMillis).append(" ms");
+                }
+                builder.append(", response ").append(response.getBody().asByteArray().length).append(" bytes");
+            }
+            return builder.toString();
+        }
+
+        private static void logIfPresent(String message, Lazy value) {
+            if (value != null) {
+                LoggerUtil.info(message, value.get());
+            }
+        }
+
+        private static void attachIfPresent(String attachmentName, String type, Lazy value) {
+            if (value == null) {
+                return;
+            }
+            if (type == null) {
+                Allure.addAttachment(attachmentName, value.get());
+            } else {
+                Allure.addAttachment(attachmentName, type, value.get());
+            }
+        }
+    }
+
+    /**
+     * Giá trị chỉ được tính ở lần get() đầu tiên.
+     */
+    private static class Lazy {
+        private Supplier<String> supplier;
+        private String value;
+
+        Lazy(Supplier<String> supplier) {
+            this.supplier = supplier;
+        }
+
+        synchronized String get() {
+            if (supplier != null) {
+                value = supplier.get();
+                supplier = null;
+            }
+            return value;
+        }
+    }
+}
@@ -1,47 +1,50 @@
 package com.example.api;
 
+import com.example.config.APIConfig;
 import com.example.utils.LoggerUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.qameta.allure.Allure;
-import io.restassured.RestAssured;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 
+import java.util.concurrent.CompletableFuture;
+
 public class PaymentOrderAPI {
-    private static final String BASE_URL = "https://sandbox.acb.com.vn/acb/open/payments/payment-order/v2/transaction";
     private static final ObjectMapper mapper = new ObjectMapper();
 
-
-
     public static Response createPaymentOrder(String token, Object requestBody) throws Exception {
-        RequestSpecification request = RestAssured.given()
-                .header("Authorization", "Bearer " + token)
-                .header("X-Channel", "SOBA")
-                .header("X-Client-ID", "2f4e1379addb2c6f059d53f622b6bf80")
-                .header("X-Provider-ID", "PIKA")
-                .header("X-Request-ID", java.util.UUID.randomUUID().toString())
+        String endpoint = APIConfig.paymentEndpoint();
+        RequestSpecification request = ApiClient.paymentRequest(token)
                 .contentType("application/json")
                 .body(mapper.writeValueAsString(requestBody));
-
-        // Log request
-        LoggerUtil.info("Sending Payment Order Request to: {}", BASE_URL);
-        LoggerUtil.info("Request Headers: {}", request.log().headers().toString());
-        LoggerUtil.info("Request Body: \n{}", mapper.writerWithDefaultPrettyPrinter().writeValueAsString(requestBody));
-        Allure.addAttachment("Payment Order Request - URL", BASE_URL);
-        Allure.addAttachment("Payment Order Request - Headers", request.log().headers().toString());
-        Allure.addAttachment("Payment Order Request - Body", "application/json", mapper.writerWithDefaultPrettyPrinter().writeValueAsString(requestBody));
+        PayloadCapture.Exchange capture = PayloadCapture.start("Payment Order", "POST", endpoint, request)
+                .requestBody(requestBody);
 
         // Gửi yêu cầu
-        Response response = request.post(BASE_URL);
+        return capture.complete(ApiClient.consume(request.post(endpoint)));
+    }
+
+    public static CompletableFuture<Response> createPaymentOrderAsync(String token, Object requestBody) {
+        String endpoint = APIConfig.paymentEndpoint();
+        LoggerUtil.info("Sending async Payment Order Request to: {}", endpoint);
+        try {
+            return AsyncApiClient.postJson(endpoint, token, mapper.writeValueAsString(requestBody));
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
-        // Log response
-        LoggerUtil.info("Payment Order Response - Status Code: {}", response.getStatusCode());
-        LoggerUtil.info("Payment Order Response - Headers: {}", response.getHeaders());
-        LoggerUtil.info("Payment Order Response - Body: \n{}", response.getBody().asPrettyString());
-        Allure.addAttachment("Payment Order Response - Status Code", String.valueOf(response.getStatusCode()));
-        Allure.addAttachment("Payment Order Response - Headers", response.getHeaders().toString());
-        Allure.addAttachment("Payment Order Response - Body", "application/json", response.getBody().asPrettyString());
+    /**
+     * Body đã dựng sẵn dạng byte JSON UTF-8 (vd. từ {@link com.example.utils.CompiledTemplate}), gửi không qua Jackson.
+     */
+    public static Response createPaymentOrder(String token, byte[] requestBody) {
+        String endpoint = APIConfig.paymentEndpoint();
+        RequestSpecification request = ApiClient.paymentRequest(token)
+                .contentType("application/json")
+                .body(requestBody);
+        PayloadCapture.Exchange capture = PayloadCapture.start("Payment Order", "POST", endpoint, request)
+                .requestBody(requestBody);
 
-        return response;
+        return capture.complete(ApiClient.consume(request.post(endpoint)));
     }
-}
\ No newline at end of file
+}
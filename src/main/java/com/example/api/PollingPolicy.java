@@ -0,0 +1,103 @@
+package com.example.api;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cấu hình poll trạng thái: backoff luỹ thừa có jitter, deadline và tập trạng thái kết thúc.
+ * Giá trị mặc định đọc từ system property poll.initialDelayMillis, poll.initialIntervalMillis,
+ * poll.maxIntervalMillis, poll.multiplier, poll.jitter, poll.timeoutSeconds, poll.successStatuses,
+ * poll.failureStatuses.
+ */
+public class PollingPolicy {
+    private final long initialDelayMillis;
+    private final long initialIntervalMillis;
+    private final long maxIntervalMillis;
+    private final double multiplier;
+    private final double jitter;
+    private final Duration timeout;
+    private final Set<String> successStatuses;
+    private final Set<String> failureStatuses;
+
+    public PollingPolicy(long initialDelayMillis, long initialIntervalMillis, long maxIntervalMillis, double multiplier,
+                         double jitter, Duration timeout, Set<String> successStatuses, Set<String> failureStatuses) {
+        if (initialDelayMillis < 0 || initialIntervalMillis <= 0 || maxIntervalMillis < initialIntervalMillis) {
+            throw new IllegalArgumentException("Invalid polling intervals: initialDelay=" + initialDelayMillis
+                    + ", initialInterval=" + initialIntervalMillis + ", maxInterval=" + maxIntervalMillis);
+        }
+        if (multiplier < 1.0 || jitter < 0.0 || jitter >= 1.0) {
+            throw new IllegalArgumentException("Invalid polling backoff: multiplier=" + multiplier + ", jitter=" + jitter);
+        }
+        if (timeout == null || timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Polling timeout must be positive");
+        }
+        this.initialDelayMillis = initialDelayMillis;
+        this.initialIntervalMillis = initialIntervalMillis;
+        this.maxIntervalMillis = maxIntervalMillis;
+        this.multiplier = multiplier;
+        this.jitter = jitter;
+        this.timeout = timeout;
+        this.successStatuses = Collections.unmodifiableSet(new LinkedHashSet<>(successStatuses));
+        this.failureStatuses = Collections.unmodifiableSet(new LinkedHashSet<>(failureStatuses));
+    }
+
+    public static PollingPolicy fromSystemProperties() {
+        return new PollingPolicy(
+                Long.getLong("poll.initialDelayMillis", 500),
+                Long.getLong("poll.initialIntervalMillis", 500),
+                Long.getLong("poll.maxIntervalMillis", 5000),
+                Double.parseDouble(System.getProperty("poll.multiplier", "1.5")),
+                Double.parseDouble(System.getProperty("poll.jitter", "0.2")),
+                Duration.ofSeconds(Long.getLong("poll.timeoutSeconds", 60)),
+                parseStatuses(System.getProperty("poll.successStatuses", "TRAN,COMP")),
+                parseStatuses(System.getProperty("poll.failureStatuses", "RJCT,CANC,FAIL")));
+    }
+
+    public PollingPolicy withTimeout(Duration newTimeout) {
+        return new PollingPolicy(initialDelayMillis, initialIntervalMillis, maxIntervalMillis, multiplier, jitter,
+                newTimeout, successStatuses, failureStatuses);
+    }
+
+    public long getInitialDelayMillis() {
+        return initialDelayMillis;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public Set<String> getSuccessStatuses() {
+        return successStatuses;
+    }
+
+    public Set<String> getFailureStatuses() {
+        return failureStatuses;
+    }
+
+    public boolean isTerminal(String status) {
+        return status != null && (successStatuses.contains(status) || failureStatuses.contains(status));
+    }
+
+    /**
+     * Khoảng chờ trước lần poll thứ attempt + 1 (attempt bắt đầu từ 1), đã cộng jitter ±jitter.
+     */
+    public long nextDelayMillis(int attempt) {
+        double base = Math.min(maxIntervalMillis, initialIntervalMillis * Math.pow(multiplier, attempt - 1));
+        double factor = jitter == 0.0 ? 1.0 : 1.0 + ThreadLocalRandom.current().nextDouble(-jitter, jitter);
+        return Math.max(1, Math.round(base * factor));
+    }
+
+    private static Set<String> parseStatuses(String value) {
+        Set<String> statuses = new LinkedHashSet<>();
+        for (String status : Arrays.asList(value.split(","))) {
+            if (!status.trim().isEmpty()) {
+                statuses.add(status.trim());
+            }
+        }
+        return statuses;
+    }
+}
@@ -0,0 +1,422 @@
+package com.example.api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Đọc response của endpoint truy vấn giao dịch (responseData.transactions) và truy vấn bulk
+ * (responseData.bulkTransactions) bằng Jackson streaming parser, một lượt duy nhất, thành model có kiểu.
+ * Thay cho các lần gọi response.jsonPath() liên tiếp, mỗi lần parse lại toàn bộ body bằng Groovy GPath.
+ * Với response lớn dùng {@link #transactions(InputStream)} / {@link #bulkTransactions(InputStream)} để đọc
+ * từng phần tử mà không giữ cả mảng trong bộ nhớ. Field không biết được bỏ qua.
+ */
+public class QueryResponseParser {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final String TRANSACTIONS = "transactions";
+    private static final String BULK_TRANSACTIONS = "bulkTransactions";
+
+    public static QueryResult<Transaction> parseTransactionQuery(Response response) {
+        return parse(response, TRANSACTIONS, QueryResponseParser::readTransaction);
+    }
+
+    public static QueryResult<BulkTransaction> parseBulkQuery(Response response) {
+        return parse(response, BULK_TRANSACTIONS, QueryResponseParser::readBulkTransaction);
+    }
+
+    /**
+     * Duyệt responseData.transactions; caller phải đóng iterator (hoặc duyệt hết) để giải phóng parser.
+     */
+    public static RecordIterator<Transaction> transactions(InputStream body) throws IOException {
+        return new RecordIterator<>(JSON_FACTORY.createParser(body), TRANSACTIONS, QueryResponseParser::readTransaction);
+    }
+
+    /**
+     * Duyệt responseData.bulkTransactions; mỗi bulk được đọc trọn vẹn kèm danh sách transactions của nó.
+     */
+    public static RecordIterator<BulkTransaction> bulkTransactions(InputStream body) throws IOException {
+        return new RecordIterator<>(JSON_FACTORY.createParser(body), BULK_TRANSACTIONS, QueryResponseParser::readBulkTransaction);
+    }
+
+    /**
+     * Trạng thái của giao dịch đầu tiên; chỉ đọc tới phần tử đầu nên dùng được cho poll trên response lớn.
+     */
+    public static String firstTransactionStatus(Response response) {
+        Transaction first = first(response, TRANSACTIONS, QueryResponseParser::readTransaction);
+        return first == null ? null : first.getStatus();
+    }
+
+    public static String firstBulkStatus(Response response) {
+        BulkTransaction first = first(response, BULK_TRANSACTIONS, QueryResponseParser::readBulkTransaction);
+        return first == null ? null : first.getBulkStatus();
+    }
+
+    private static <T> T first(Response response, String arrayField, RecordReader<T> reader) {
+        if (response.getStatusCode() != 200) {
+            return null;
+        }
+        try (RecordIterator<T> records = new RecordIterator<>(JSON_FACTORY.createParser(response.asByteArray()), arrayField, reader)) {
+            return records.hasNext() ? records.next() : null;
+        } catch (IOException | UncheckedIOException e) {
+            return null;
+        }
+    }
+
+    private static <T> QueryResult<T> parse(Response response, String arrayField, RecordReader<T> reader) {
+        byte[] body = response.asByteArray();
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalStateException("Query response is not a JSON object (HTTP " + response.getStatusCode() + ")");
+            }
+            String requestTrace = null;
+            String responseCode = null;
+            String responseMessage = null;
+            boolean hasData = false;
+            List<T> records = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("requestTrace".equals(field)) {
+                    requestTrace = parser.getValueAsString();
+                } else if ("responseStatus".equals(field) && value == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String statusField = parser.getCurrentName();
+                        parser.nextToken();
+                        if ("responseCode".equals(statusField)) {
+                            responseCode = parser.getValueAsString();
+                        } else if ("responseMessage".equals(statusField)) {
+                            responseMessage = parser.getValueAsString();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else if ("responseData".equals(field) && value == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String dataField = parser.getCurrentName();
+                        if (parser.nextToken() == JsonToken.START_ARRAY && arrayField.equals(dataField)) {
+                            hasData = true;
+                            readArray(parser, reader, records);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return new QueryResult<>(response.getStatusCode(), requestTrace, responseCode, responseMessage,
+                    hasData ? records : null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to parse query response (HTTP " + response.getStatusCode() + ")", e);
+        }
+    }
+
+    private static <T> void readArray(JsonParser parser, RecordReader<T> reader, List<T> into) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token == JsonToken.START_OBJECT) {
+                into.add(reader.read(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static Transaction readTransaction(JsonParser parser) throws IOException {
+        String traceNumber = null;
+        String type = null;
+        String status = null;
+        String amount = null;
+        String currency = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "transactionTraceNumber":
+                    traceNumber = parser.getValueAsString();
+                    break;
+                case "transactionType":
+                    type = parser.getValueAsString();
+                    break;
+                case "status":
+                    status = parser.getValueAsString();
+                    break;
+                case "amount":
+                    if (value != JsonToken.START_OBJECT) {
+                        amount = parser.getValueAsString();
+                        break;
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String amountField = parser.getCurrentName();
+                        parser.nextToken();
+                        if ("amount".equals(amountField)) {
+                            amount = parser.getValueAsString();
+                        } else if ("sourceCurrency".equals(amountField)) {
+                            currency = parser.getValueAsString();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return new Transaction(traceNumber, type, status, amount, currency);
+    }
+
+    private static BulkTransaction readBulkTransaction(JsonParser parser) throws IOException {
+        String bulkTraceNumber = null;
+        String bulkStatus = null;
+        int transactionCount = -1;
+        List<Transaction> transactions = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("bulkTraceNumber".equals(field)) {
+                bulkTraceNumber = parser.getValueAsString();
+            } else if ("bulkStatus".equals(field)) {
+                bulkStatus = parser.getValueAsString();
+            } else if ("transactionCount".equals(field)) {
+                transactionCount = parser.getValueAsInt(-1);
+            } else if (TRANSACTIONS.equals(field) && value == JsonToken.START_ARRAY) {
+                readArray(parser, QueryResponseParser::readTransaction, transactions);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new BulkTransaction(bulkTraceNumber, bulkStatus,
+                transactionCount >= 0 ? transactionCount : transactions.size(), transactions);
+    }
+
+    private interface RecordReader<T> {
+        /**
+         * Parser đang ở START_OBJECT của phần tử; đọc tới END_OBJECT tương ứng.
+         */
+        T read(JsonParser parser) throws IOException;
+    }
+
+    /**
+     * Kết quả parse một lượt: envelope và danh sách phần tử; records là null khi response không có mảng dữ liệu.
+     */
+    public static class QueryResult<T> {
+        private final int statusCode;
+        private final String requestTrace;
+        private final String responseCode;
+        private final String responseMessage;
+        private final List<T> records;
+
+        QueryResult(int statusCode, String requestTrace, String responseCode, String responseMessage, List<T> records) {
+            this.statusCode = statusCode;
+            this.requestTrace = requestTrace;
+            this.responseCode = responseCode;
+            this.responseMessage = responseMessage;
+            this.records = records == null ? null : Collections.unmodifiableList(records);
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public String getRequestTrace() {
+            return requestTrace;
+        }
+
+        public String getResponseCode() {
+            return responseCode;
+        }
+
+        public String getResponseMessage() {
+            return responseMessage;
+        }
+
+        public List<T> getRecords() {
+            return records == null ? Collections.emptyList() : records;
+        }
+
+        public boolean isEmpty() {
+            return records == null || records.isEmpty();
+        }
+
+        public T first() {
+            return isEmpty() ? null : records.get(0);
+        }
+    }
+
+    public static class Transaction {
+        private final String transactionTraceNumber;
+        private final String transactionType;
+        private final String status;
+        private final String amount;
+        private final String currency;
+
+        Transaction(String transactionTraceNumber, String transactionType, String status, String amount, String currency) {
+            this.transactionTraceNumber = transactionTraceNumber;
+            this.transactionType = transactionType;
+            this.status = status;
+            this.amount = amount;
+            this.currency = currency;
+        }
+
+        public String getTransactionTraceNumber() {
+            return transactionTraceNumber;
+        }
+
+        public String getTransactionType() {
+            return transactionType;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public String getAmount() {
+            return amount;
+        }
+
+        public String getCurrency() {
+            return currency;
+        }
+
+        @Override
+        public String toString() {
+            return transactionTraceNumber + " " + transactionType + " " + status;
+        }
+    }
+
+    public static class BulkTransaction {
+        private final String bulkTraceNumber;
+        private final String bulkStatus;
+        private final int transactionCount;
+        private final List<Transaction> transactions;
+
+        BulkTransaction(String bulkTraceNumber, String bulkStatus, int transactionCount, List<Transaction> transactions) {
+            this.bulkTraceNumber = bulkTraceNumber;
+            this.bulkStatus = bulkStatus;
+            this.transactionCount = transactionCount;
+            this.transactions = Collections.unmodifiableList(transactions);
+        }
+
+        public String getBulkTraceNumber() {
+            return bulkTraceNumber;
+        }
+
+        public String getBulkStatus() {
+            return bulkStatus;
+        }
+
+        public int getTransactionCount() {
+            return transactionCount;
+        }
+
+        public List<Transaction> getTransactions() {
+            return transactions;
+        }
+
+        @Override
+        public String toString() {
+            return bulkTraceNumber + " " + bulkStatus + " (" + transactionCount + " transactions)";
+        }
+    }
+
+    /**
+     * Iterator đọc dần mảng responseData.&lt;field&gt;; lỗi đọc được bọc trong UncheckedIOException.
+     * Envelope nằm sau responseData không được đọc.
+     */
+    public static class RecordIterator<T> implements Iterator<T>, AutoCloseable {
+        private final JsonParser parser;
+        private final RecordReader<T> reader;
+        private boolean inArray;
+        private boolean finished;
+        private T next;
+
+        RecordIterator(JsonParser parser, String arrayField, RecordReader<T> reader) throws IOException {
+            this.parser = parser;
+            this.reader = reader;
+            this.inArray = seek(arrayField);
+            if (!inArray) {
+                close();
+            }
+        }
+
+        /**
+         * Đưa parser tới START_ARRAY của responseData.&lt;arrayField&gt;, bỏ qua mọi thứ khác.
+         */
+        private boolean seek(String arrayField) throws IOException {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                if (parser.nextToken() != JsonToken.START_OBJECT || !"responseData".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String dataField = parser.getCurrentName();
+                    if (parser.nextToken() == JsonToken.START_ARRAY && arrayField.equals(dataField)) {
+                        return true;
+                    }
+                    parser.skipChildren();
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            if (finished || !inArray) {
+                return false;
+            }
+            try {
+                JsonToken token;
+                while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+                    if (token == JsonToken.START_OBJECT) {
+                        next = reader.read(parser);
+                        return true;
+                    }
+                    parser.skipChildren();
+                }
+                close();
+                return false;
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException("Failed to read query response", e);
+            }
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T current = next;
+            next = null;
+            return current;
+        }
+
+        @Override
+        public void close() {
+            finished = true;
+            try {
+                parser.close();
+            } catch (IOException e) {
+                // parser chỉ đọc, không có gì cần báo
+            }
+        }
+    }
+}
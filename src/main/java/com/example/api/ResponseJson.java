@@ -0,0 +1,52 @@
+package com.example.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Body của response được parse thành cây Jackson đúng một lần rồi giữ lại theo response (weak reference),
+ * các lần đọc field sau đó chỉ là tra cây qua {@link FieldPath} đã compile, không parse lại như response.jsonPath().
+ */
+public class ResponseJson {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Map<Response, JsonNode> TREES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Cây JSON của body; MissingNode khi body rỗng hoặc không phải JSON.
+     */
+    public static JsonNode tree(Response response) {
+        JsonNode tree = TREES.get(response);
+        if (tree == null) {
+            tree = parse(response);
+            TREES.put(response, tree);
+        }
+        return tree;
+    }
+
+    /**
+     * Giá trị của biểu thức field (xem {@link FieldPath#firstText}); null khi không có.
+     */
+    public static String text(Response response, String expression) {
+        return FieldPath.compile(expression).firstText(tree(response));
+    }
+
+    private static JsonNode parse(Response response) {
+        byte[] body = response.asByteArray();
+        if (body == null || body.length == 0) {
+            return MissingNode.getInstance();
+        }
+        try {
+            JsonNode tree = MAPPER.readTree(body);
+            return tree == null ? MissingNode.getInstance() : tree;
+        } catch (IOException e) {
+            return MissingNode.getInstance();
+        }
+    }
+}
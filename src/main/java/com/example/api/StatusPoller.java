@@ -0,0 +1,143 @@
+package com.example.api;
+
+import com.example.utils.LoggerUtil;
+import io.restassured.response.Response;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Poll trạng thái giao dịch cho tới khi gặp trạng thái kết thúc (theo {@link PollingPolicy}) hoặc hết deadline.
+ * Mỗi lần poll là một request bất đồng bộ, lần kế tiếp được hẹn trên một scheduler dùng chung nên
+ * không có thread nào bị giữ giữa hai lần poll. Trạng thái được đọc bằng {@link QueryResponseParser}, chỉ tới phần tử đầu.
+ */
+public class StatusPoller {
+    private static final ScheduledExecutorService SCHEDULER = Executors.newScheduledThreadPool(
+            Integer.getInteger("poll.schedulerThreads", 2), r -> {
+                Thread thread = new Thread(r, "status-poller");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * Poll lịch sử giao dịch theo transactionTraceNumber tới khi status là TRAN/COMP hoặc trạng thái lỗi.
+     */
+    public static CompletableFuture<Response> pollTransaction(String transactionTraceNumber, String fromDate, String toDate,
+                                                              PollingPolicy policy) {
+        return poll("transaction " + transactionTraceNumber,
+                () -> TokenManager.getInstance().executeAsync(token ->
+                        TransactionTraceAPI.getTransactionHistoryAsync(token, transactionTraceNumber, fromDate, toDate)),
+                QueryResponseParser::firstTransactionStatus, policy);
+    }
+
+    /**
+     * Poll bulk transaction theo bulkTraceNumber tới khi bulkStatus là trạng thái kết thúc.
+     */
+    public static CompletableFuture<Response> pollBulkTransaction(String bulkTraceNumber, String fromDate, String toDate,
+                                                                  PollingPolicy policy) {
+        return poll("bulk " + bulkTraceNumber,
+                () -> TokenManager.getInstance().executeAsync(token ->
+                        BulkTransactionQueryAPI.getBulkTransactionAsync(token, bulkTraceNumber, fromDate, toDate)),
+                QueryResponseParser::firstBulkStatus, policy);
+    }
+
+    /**
+     * Trả về response đầu tiên có trạng thái kết thúc; khi hết deadline trả về response cuối cùng nhận được
+     * (để assertion phía caller báo đúng trạng thái), hoặc TimeoutException nếu chưa nhận được response nào.
+     */
+    public static CompletableFuture<Response> poll(String description, Supplier<CompletableFuture<Response>> query,
+                                                   Function<Response, String> statusExtractor, PollingPolicy policy) {
+        CompletableFuture<Response> result = new CompletableFuture<>();
+        long deadline = System.nanoTime() + policy.getTimeout().toNanos();
+        new PollTask(description, query, statusExtractor, policy, deadline, result).schedule(policy.getInitialDelayMillis());
+        return result;
+    }
+
+    private static class PollTask {
+        private final String description;
+        private final Supplier<CompletableFuture<Response>> query;
+        private final Function<Response, String> statusExtractor;
+        private final PollingPolicy policy;
+        private final long deadlineNanos;
+        private final CompletableFuture<Response> result;
+        private final long startNanos = System.nanoTime();
+        private int attempt;
+        private Response lastResponse;
+
+        PollTask(String description, Supplier<CompletableFuture<Response>> query, Function<Response, String> statusExtractor,
+                 PollingPolicy policy, long deadlineNanos, CompletableFuture<Response> result) {
+            this.description = description;
+            this.query = query;
+            this.statusExtractor = statusExtractor;
+            this.policy = policy;
+            this.deadlineNanos = deadlineNanos;
+            this.result = result;
+        }
+
+        void schedule(long delayMillis) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+            SCHEDULER.schedule(this::pollOnce, Math.max(0, Math.min(delayMillis, remainingMillis)), TimeUnit.MILLISECONDS);
+        }
+
+        private void pollOnce() {
+            if (result.isDone()) {
+                return;
+            }
+            attempt++;
+            CompletableFuture<Response> call;
+            try {
+                call = query.get();
+            } catch (RuntimeException e) {
+                onComplete(null, e);
+                return;
+            }
+            call.whenComplete(this::onComplete);
+        }
+
+        /**
+         * Chạy trong whenComplete nên exception ở đây bị nuốt mất; mọi lỗi phải được chuyển vào result,
+         * nếu không caller join() sẽ chờ mãi.
+         */
+        private void onComplete(Response response, Throwable error) {
+            try {
+                handle(response, error);
+            } catch (RuntimeException e) {
+                LoggerUtil.warn("Poll #{} for {} aborted: {}", attempt, description, e.getMessage());
+                result.completeExceptionally(e);
+            }
+        }
+
+        private void handle(Response response, Throwable error) {
+            String status = null;
+            if (error != null) {
+                LoggerUtil.warn("Poll #{} for {} failed: {}", attempt, description, error.getMessage());
+            } else {
+                lastResponse = response;
+                status = statusExtractor.apply(response);
+                LoggerUtil.info("Poll #{} for {} - HTTP {}, status: {}", attempt, description, response.getStatusCode(), status);
+            }
+
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            if (policy.isTerminal(status)) {
+                LoggerUtil.info("{} reached terminal status {} after {} poll(s) in {} ms", description, status, attempt, elapsedMillis);
+                result.complete(response);
+            } else if (System.nanoTime() - deadlineNanos >= 0) {
+                if (lastResponse != null) {
+                    LoggerUtil.warn("{} did not reach a terminal status within {} ms ({} poll(s)), last status: {}",
+                            description, elapsedMillis, attempt, statusExtractor.apply(lastResponse));
+                    result.complete(lastResponse);
+                } else {
+                    result.completeExceptionally(new TimeoutException("No response for " + description + " within "
+                            + policy.getTimeout().toMillis() + " ms" + (error != null ? ": " + error.getMessage() : "")));
+                }
+            } else {
+                schedule(policy.nextDelayMillis(attempt));
+            }
+        }
+    }
+}
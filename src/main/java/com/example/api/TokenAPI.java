@@ -3,21 +3,72 @@ package com.example.api;
 import com.example.config.APIConfig;
 import com.example.utils.LoggerUtil;
 import io.restassured.response.Response;
-import static io.restassured.RestAssured.given;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class TokenAPI {
+    // Dùng khi token endpoint không trả về expires_in
+    private static final long DEFAULT_EXPIRES_IN_SECONDS = 300;
+
+    /**
+     * Token đã cache bởi {@link TokenManager}; chỉ gọi token endpoint khi chưa có hoặc sắp hết hạn.
+     */
     public static String getAccessToken() {
-        LoggerUtil.info("Sending Token Request to: {}", APIConfig.TOKEN_ENDPOINT);
-        Response response = given()
+        return TokenManager.getInstance().getToken();
+    }
+
+    /**
+     * Luôn gửi request mới tới token endpoint.
+     */
+    public static AccessToken requestAccessToken() {
+        return requestAccessToken(APIConfig.tokenEndpoint());
+    }
+
+    /**
+     * Như {@link #requestAccessToken()} nhưng tới token endpoint cho trước thay vì {@link APIConfig}.
+     */
+    public static AccessToken requestAccessToken(String tokenEndpoint) {
+        LoggerUtil.info("Sending Token Request to: {}", tokenEndpoint);
+        Response response = ApiClient.request()
                 .contentType("application/x-www-form-urlencoded")
                 .formParam("client_id", APIConfig.CLIENT_ID)
                 .formParam("client_secret", APIConfig.CLIENT_SECRET)
                 .formParam("grant_type", "client_credentials")
-                .post(APIConfig.TOKEN_ENDPOINT);
+                .post(tokenEndpoint);
+        ApiClient.consume(response);
 
         response.then().statusCode(200);
-        String token = response.jsonPath().getString("access_token");
+        String token = ResponseJson.text(response, "access_token");
         LoggerUtil.info("Access Token: {}", token);
-        return token;
+        return new AccessToken(token, expiresIn(response));
+    }
+
+    public static CompletableFuture<String> getAccessTokenAsync() {
+        LoggerUtil.info("Sending async Token Request to: {}", APIConfig.tokenEndpoint());
+        Map<String, String> formParams = new LinkedHashMap<>();
+        formParams.put("client_id", APIConfig.CLIENT_ID);
+        formParams.put("client_secret", APIConfig.CLIENT_SECRET);
+        formParams.put("grant_type", "client_credentials");
+        return AsyncApiClient.postForm(APIConfig.tokenEndpoint(), formParams).thenApply(response -> {
+            if (response.getStatusCode() != 200) {
+                throw new IllegalStateException("Token request failed with status code: " + response.getStatusCode());
+            }
+            return ResponseJson.text(response, "access_token");
+        });
+    }
+
+    private static long expiresIn(Response response) {
+        String expiresIn = ResponseJson.text(response, "expires_in");
+        if (expiresIn == null) {
+            return DEFAULT_EXPIRES_IN_SECONDS;
+        }
+        try {
+            return Long.parseLong(expiresIn.trim());
+        } catch (NumberFormatException e) {
+            LoggerUtil.warn("Invalid expires_in value: {}, using default {} s", expiresIn, DEFAULT_EXPIRES_IN_SECONDS);
+            return DEFAULT_EXPIRES_IN_SECONDS;
+        }
     }
 }
\ No newline at end of file
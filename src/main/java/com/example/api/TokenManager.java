@@ -0,0 +1,187 @@
+package com.example.api;
+
+import com.example.utils.LoggerUtil;
+import io.restassured.response.Response;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cache access token theo expires_in và làm mới chủ động ở background trước khi hết hạn.
+ * Tại một thời điểm chỉ có một lần refresh chạy; trong lúc đó các caller khác vẫn dùng token hiện tại
+ * (chỉ chờ khi chưa có token hoặc token đã hết hạn). Request bị 401 được gửi lại đúng một lần với token mới.
+ * Mọi instance dùng chung một thread daemon để refresh; {@link #close()} huỷ lần refresh đã lên lịch của instance.
+ */
+public class TokenManager implements AutoCloseable {
+    private static final long MIN_REFRESH_MARGIN_MILLIS = 30_000;
+    private static final long RETRY_DELAY_MILLIS = 5_000;
+
+    private static final ScheduledThreadPoolExecutor SCHEDULER = newScheduler();
+    private static final TokenManager INSTANCE = new TokenManager(TokenAPI::requestAccessToken);
+
+    private final Supplier<AccessToken> fetcher;
+    private final AtomicReference<CompletableFuture<AccessToken>> inFlight = new AtomicReference<>();
+    private volatile AccessToken current;
+    private volatile ScheduledFuture<?> scheduled;
+    private volatile boolean closed;
+
+    public TokenManager(Supplier<AccessToken> fetcher) {
+        this.fetcher = fetcher;
+    }
+
+    public static TokenManager getInstance() {
+        return INSTANCE;
+    }
+
+    public String getToken() {
+        AccessToken token = current;
+        if (token != null && !token.isExpired()) {
+            return token.getValue();
+        }
+        try {
+            return refresh().join().getValue();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Bắt đầu (hoặc tham gia) lần refresh đang chạy; không bao giờ có hai request token song song.
+     */
+    public CompletableFuture<AccessToken> refresh() {
+        while (true) {
+            CompletableFuture<AccessToken> existing = inFlight.get();
+            if (existing != null) {
+                return existing;
+            }
+            CompletableFuture<AccessToken> created = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, created)) {
+                SCHEDULER.execute(() -> fetchInto(created));
+                return created;
+            }
+        }
+    }
+
+    /**
+     * Bỏ token bị server từ chối (401) để lần gọi sau lấy token mới.
+     */
+    public void invalidate(String rejectedToken) {
+        AccessToken token = current;
+        if (token != null && token.getValue().equals(rejectedToken)) {
+            current = null;
+        }
+    }
+
+    /**
+     * Gọi API với token hiện tại; nếu nhận 401 thì làm mới token và gọi lại đúng một lần.
+     */
+    public Response execute(TokenCall call) throws Exception {
+        String token = getToken();
+        Response response = call.call(token);
+        if (response.getStatusCode() == 401) {
+            LoggerUtil.warn("Received 401 Unauthorized, refreshing access token and retrying once");
+            invalidate(token);
+            response = call.call(getToken());
+        }
+        return response;
+    }
+
+    /**
+     * Bản bất đồng bộ của {@link #execute}; lỗi lấy token hoặc lỗi khi gửi request được trả về dưới dạng future
+     * lỗi thay vì ném ra ở thread gọi, nên caller chỉ cần xử lý một đường lỗi.
+     */
+    public CompletableFuture<Response> executeAsync(Function<String, CompletableFuture<Response>> call) {
+        String token;
+        CompletableFuture<Response> first;
+        try {
+            token = getToken();
+            first = call.apply(token);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return first.thenCompose(response -> {
+            if (response.getStatusCode() != 401) {
+                return CompletableFuture.completedFuture(response);
+            }
+            LoggerUtil.warn("Received 401 Unauthorized, refreshing access token and retrying once");
+            invalidate(token);
+            return refresh().thenCompose(fresh -> call.apply(fresh.getValue()));
+        });
+    }
+
+    private void fetchInto(CompletableFuture<AccessToken> future) {
+        try {
+            AccessToken token = fetcher.get();
+            current = token;
+            inFlight.compareAndSet(future, null);
+            future.complete(token);
+            scheduleRefresh(token);
+        } catch (Throwable e) {
+            LoggerUtil.error("Failed to refresh access token: {}", e.getMessage());
+            inFlight.compareAndSet(future, null);
+            future.completeExceptionally(e);
+            AccessToken token = current;
+            if (token != null && !token.isExpired()) {
+                schedule(this::refresh, RETRY_DELAY_MILLIS);
+            }
+        }
+    }
+
+    private void scheduleRefresh(AccessToken token) {
+        long lifetime = token.getLifetimeMillis();
+        long margin = Math.min(Math.max(MIN_REFRESH_MARGIN_MILLIS, lifetime / 5), lifetime / 2);
+        long delay = Math.max(0, lifetime - margin);
+        LoggerUtil.info("Access token valid for {} s, next refresh in {} s", lifetime / 1000, delay / 1000);
+        schedule(() -> {
+            // Chỉ refresh nếu token này vẫn là token hiện tại (chưa bị thay bởi lần refresh khác)
+            if (current == token) {
+                refresh();
+            }
+        }, delay);
+    }
+
+    private synchronized void schedule(Runnable task, long delayMillis) {
+        if (closed) {
+            return;
+        }
+        ScheduledFuture<?> previous = scheduled;
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        scheduled = SCHEDULER.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Dừng refresh chủ động của instance này; getToken() vẫn lấy token khi cần nhưng không lên lịch refresh nữa.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        ScheduledFuture<?> pending = scheduled;
+        if (pending != null) {
+            pending.cancel(false);
+            scheduled = null;
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor newScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "token-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Task bị huỷ bởi close() được bỏ khỏi hàng đợi ngay thay vì giữ instance tới hạn chạy
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    public interface TokenCall {
+        Response call(String token) throws Exception;
+    }
+}
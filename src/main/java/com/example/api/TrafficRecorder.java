@@ -0,0 +1,170 @@
+package com.example.api;
+
+import com.example.config.APIConfig;
+import com.example.utils.LoggerUtil;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ghi mọi cặp request/response của API layer (đồng bộ qua RestAssured filter, async qua {@link AsyncApiClient})
+ * thành một dòng JSON trong file capture, bật bằng -Drecord.file=&lt;path&gt;.
+ * Mỗi dòng có offsetMillis tính từ lúc bắt đầu ghi để replay dựng lại đúng nhịp gửi, path tương đối với base URL
+ * để replay được trên base URL khác. Ghi qua BufferedWriter, flush mỗi giây và khi JVM tắt.
+ * Body form của token request (chứa client secret) không được ghi.
+ */
+public class TrafficRecorder {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    static final Filter FILTER = new RecordingFilter();
+
+    private static final Writer WRITER = open(System.getProperty("record.file"));
+    private static final long START_NANOS = System.nanoTime();
+
+    public static boolean isEnabled() {
+        return WRITER != null;
+    }
+
+    /**
+     * Ghi một lần gọi; startNanos là System.nanoTime() lúc gửi request, status &lt;= 0 khi không có response.
+     */
+    public static void record(String method, String url, String requestBody, long startNanos, int status,
+                              String responseBody, boolean async) {
+        if (WRITER == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        StringWriter line = new StringWriter(256 + length(requestBody) + length(responseBody));
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(line)) {
+            generator.writeStartObject();
+            generator.writeStringField("timestamp", Instant.now().toString());
+            generator.writeNumberField("offsetMillis", TimeUnit.NANOSECONDS.toMillis(startNanos - START_NANOS));
+            generator.writeStringField("method", method);
+            generator.writeStringField("path", relativePath(url));
+            if (requestBody != null) {
+                generator.writeStringField("requestBody", requestBody);
+            }
+            generator.writeNumberField("status", status);
+            generator.writeNumberField("latencyMicros", TimeUnit.NANOSECONDS.toMicros(now - startNanos));
+            if (responseBody != null) {
+                generator.writeStringField("responseBody", responseBody);
+            }
+            generator.writeBooleanField("async", async);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            LoggerUtil.warn("Failed to serialize traffic record for {} {}: {}", method, url, e.getMessage());
+            return;
+        }
+        line.write('\n');
+        synchronized (WRITER) {
+            try {
+                WRITER.write(line.toString());
+            } catch (IOException e) {
+                LoggerUtil.warn("Failed to write traffic record: {}", e.getMessage());
+            }
+        }
+    }
+
+    public static void flush() {
+        if (WRITER == null) {
+            return;
+        }
+        synchronized (WRITER) {
+            try {
+                WRITER.flush();
+            } catch (IOException e) {
+                LoggerUtil.warn("Failed to flush traffic capture: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Path (kèm query string) tương đối với base URL hiện tại; URL ngoài base URL được giữ nguyên.
+     */
+    static String relativePath(String url) {
+        String baseUrl = APIConfig.getBaseUrl();
+        return url.startsWith(baseUrl) ? url.substring(baseUrl.length()) : url;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static Writer open(String file) {
+        if (file == null || file.trim().isEmpty()) {
+            return null;
+        }
+        Path path = Paths.get(file.trim());
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            BufferedWriter writer = new BufferedWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND), BUFFER_SIZE);
+            ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "traffic-recorder-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(TrafficRecorder::flush, 1, 1, TimeUnit.SECONDS);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                synchronized (writer) {
+                    try {
+                        writer.close();
+                    } catch (IOException e) {
+                        // JVM đang tắt, không còn nơi báo lỗi
+                    }
+                }
+            }, "traffic-recorder-close"));
+            LoggerUtil.info("Recording API traffic to {}", path.toAbsolutePath());
+            return writer;
+        } catch (IOException e) {
+            LoggerUtil.error("Cannot open traffic capture {}, recording disabled: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private static class RecordingFilter implements Filter {
+        @Override
+        public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                               FilterContext ctx) {
+            if (WRITER == null) {
+                return ctx.next(requestSpec, responseSpec);
+            }
+            Object body = requestSpec.getBody();
+            String requestBody = body instanceof String ? (String) body
+                    : body instanceof byte[] ? new String((byte[]) body, StandardCharsets.UTF_8) : null;
+            long start = System.nanoTime();
+            Response response;
+            try {
+                response = ctx.next(requestSpec, responseSpec);
+            } catch (Throwable e) {
+                record(requestSpec.getMethod(), requestSpec.getURI(), requestBody, start, 0, null, false);
+                throw e;
+            }
+            record(requestSpec.getMethod(), requestSpec.getURI(), requestBody, start, response.getStatusCode(),
+                    response.getBody().asString(), false);
+            return response;
+        }
+    }
+}
@@ -2,48 +2,42 @@ package com.example.api;
 
 import com.example.config.APIConfig;
 import com.example.utils.LoggerUtil;
-import io.qameta.allure.Allure;
 import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
 
-import java.util.UUID;
-
-import static io.restassured.RestAssured.given;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 public class TransactionTraceAPI {
     public static Response getTransactionHistory(String token, String transactionTraceNumber, String fromDate, String toDate) {
-        String endpoint = APIConfig.PAYMENT_ENDPOINT + "?transactionTraceNumber=" + transactionTraceNumber +
-                "&fromDate=" + fromDate + "&toDate=" + toDate;
-        LoggerUtil.info("Sending Transaction History Request to: {}", endpoint);
-
-        // Sinh UUID động cho X-Request-ID
-        String requestId = UUID.randomUUID().toString();
-
-        String headersLog = String.format(
-                "X-Channel=SOBA, X-Client-ID=%s, X-Provider-ID=PAYMENT-ORDER, X-Request-ID=%s, Authorization=Bearer %s",
-                APIConfig.CLIENT_ID, requestId, token
-        );
-        Allure.addAttachment("Request Headers", headersLog);
-        LoggerUtil.info("Request Headers: {}", headersLog);
-
-        Response response = given()
-                .header("X-Channel", "SOBA")
-                .header("X-Client-ID", APIConfig.CLIENT_ID)
-                .header("X-Provider-ID", "PIKA")
-                .header("X-Request-ID", requestId)
-                .header("Authorization", "Bearer " + token)
+        // Cùng query string với bản async (AsyncApiClient.withQuery) nên URL, ApiMetrics và TrafficRecorder giống nhau;
+        // query đã encode sẵn nên tắt encode của RestAssured để không encode hai lần
+        String endpoint = AsyncApiClient.withQuery(APIConfig.paymentEndpoint(),
+                queryParams(transactionTraceNumber, fromDate, toDate));
+        RequestSpecification request = ApiClient.paymentRequest(token)
                 .contentType("application/json")
-                .get(endpoint);
+                .urlEncodingEnabled(false);
+        PayloadCapture.Exchange capture = PayloadCapture.start("Transaction History", "GET", endpoint, request)
+                .field("transactionTraceNumber", transactionTraceNumber)
+                .queryParams(() -> "transactionTraceNumber: " + transactionTraceNumber + "\nfromDate: " + fromDate + "\ntoDate: " + toDate);
 
-        Allure.addAttachment("Response Status Code", String.valueOf(response.getStatusCode()));
-        Allure.addAttachment("Response Headers", response.getHeaders().toString());
-        LoggerUtil.info("Response Status Code: {}", response.getStatusCode());
-        LoggerUtil.info("Response Headers: {}", response.getHeaders().toString());
+        return capture.complete(ApiClient.consume(request.get(endpoint)));
+    }
 
-        String responseBody = response.getBody().asString();
-        Allure.addAttachment("Response Body", "application/json", responseBody);
-        LoggerUtil.info("Response Body: {}", responseBody);
+    public static CompletableFuture<Response> getTransactionHistoryAsync(String token, String transactionTraceNumber, String fromDate, String toDate) {
+        String endpoint = AsyncApiClient.withQuery(APIConfig.paymentEndpoint(),
+                queryParams(transactionTraceNumber, fromDate, toDate));
+        LoggerUtil.info("Sending async Transaction History Request to: {}", endpoint);
+        return AsyncApiClient.get(endpoint, token);
+    }
 
-        return response;
+    private static Map<String, String> queryParams(String transactionTraceNumber, String fromDate, String toDate) {
+        Map<String, String> queryParams = new LinkedHashMap<>();
+        queryParams.put("transactionTraceNumber", transactionTraceNumber);
+        queryParams.put("fromDate", fromDate);
+        queryParams.put("toDate", toDate);
+        return queryParams;
     }
 }
\ No newline at end of file
@@ -1,9 +1,43 @@
 package com.example.config;
 
+/**
+ * Endpoint được tính từ base URL hiện tại, đổi được bằng system property api.baseUrl hoặc {@link #setBaseUrl(String)}
+ * (ví dụ trỏ tới stub server local) mà không cần sửa các API class.
+ */
 public class APIConfig {
-    public static final String BASE_URL = "https://sandbox.acb.com.vn/acb/open";
-    public static final String TOKEN_ENDPOINT = BASE_URL + "/iam/id/v1/auth/realms/soba/protocol/openid-connect/token";
-    public static final String PAYMENT_ENDPOINT = BASE_URL + "/payments/payment-order/v2/transaction";
+    public static final String DEFAULT_BASE_URL = "https://sandbox.acb.com.vn/acb/open";
+    public static final String TOKEN_PATH = "/iam/id/v1/auth/realms/soba/protocol/openid-connect/token";
+    public static final String PAYMENT_PATH = "/payments/payment-order/v2/transaction";
+    public static final String BULK_TRANSACTION_PATH = "/payments/payment-order/v2/bulk-transaction";
     public static final String CLIENT_ID = "2f4e1379addb2c6f059d53f622b6bf80";
     public static final String CLIENT_SECRET = "4b6d95fa2f6fb3d00be14834d6e685e0";
-}
\ No newline at end of file
+
+    private static volatile String baseUrl = trimTrailingSlash(System.getProperty("api.baseUrl", DEFAULT_BASE_URL));
+
+    public static String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public static void setBaseUrl(String url) {
+        if (url == null || url.trim().isEmpty()) {
+            throw new IllegalArgumentException("Base URL cannot be empty");
+        }
+        baseUrl = trimTrailingSlash(url.trim());
+    }
+
+    public static String tokenEndpoint() {
+        return baseUrl + TOKEN_PATH;
+    }
+
+    public static String paymentEndpoint() {
+        return baseUrl + PAYMENT_PATH;
+    }
+
+    public static String bulkTransactionEndpoint() {
+        return baseUrl + BULK_TRANSACTION_PATH;
+    }
+
+    private static String trimTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.utils;
+
+import org.bouncycastle.cert.jcajce.JcaCertStore;
+import org.bouncycastle.cms.CMSProcessableByteArray;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.CMSSignedDataGenerator;
+import org.bouncycastle.cms.jcajce.JcaSignerInfoGeneratorBuilder;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.DigestCalculatorProvider;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.bouncycastle.util.Store;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.Collections;
+
+/**
+ * Trạng thái ký đã nạp sẵn cho một authorizationId: certificate, private key và CMS generator.
+ * Mỗi thread giữ một CMSSignedDataGenerator riêng vì ContentSigner của BouncyCastle không thread-safe.
+ */
+public class AuthorizationSigner {
+    private final String authorizationId;
+    private final X509Certificate certificate;
+    private final PrivateKey privateKey;
+    private final SignerProviders providers;
+    private final Store certs;
+    private final DigestCalculatorProvider digestCalculatorProvider;
+    private final ThreadLocal<CMSSignedDataGenerator> generators;
+
+    public AuthorizationSigner(String authorizationId, X509Certificate certificate, PrivateKey privateKey) throws Exception {
+        this(authorizationId, certificate, privateKey, SignerProviders.BOUNCY_CASTLE);
+    }
+
+    public AuthorizationSigner(String authorizationId, X509Certificate certificate, PrivateKey privateKey,
+                               SignerProviders providers) throws Exception {
+        if (authorizationId == null || authorizationId.trim().isEmpty()) {
+            throw new IllegalArgumentException("authorizationId cannot be null or empty");
+        }
+        if (certificate == null || privateKey == null) {
+            throw new IllegalArgumentException("certificate and privateKey are required for authorizationId: " + authorizationId);
+        }
+        this.authorizationId = authorizationId;
+        this.certificate = certificate;
+        this.providers = providers;
+        // Chuyển key sang dạng native của provider ký để tránh translate lại ở mỗi lần initSign
+        this.privateKey = (PrivateKey) KeyFactory.getInstance(privateKey.getAlgorithm(), providers.getSignatureProvider())
+                .translateKey(privateKey);
+        this.certs = new JcaCertStore(Collections.singletonList(certificate));
+        this.digestCalculatorProvider = new JcaDigestCalculatorProviderBuilder()
+                .setProvider(providers.getDigestProvider())
+                .build();
+        this.generators = ThreadLocal.withInitial(this::newGenerator);
+    }
+
+    public String getAuthorizationId() {
+        return authorizationId;
+    }
+
+    public X509Certificate getCertificate() {
+        return certificate;
+    }
+
+    public SignerProviders getProviders() {
+        return providers;
+    }
+
+    /**
+     * Tạo signer mới dùng cùng certificate/private key nhưng với provider khác.
+     */
+    public AuthorizationSigner withProviders(SignerProviders otherProviders) throws Exception {
+        return new AuthorizationSigner(authorizationId, certificate, privateKey, otherProviders);
+    }
+
+    /**
+     * Ký raw SHA1withRSA (không bọc CMS) bằng provider đã cấu hình; dùng cho self-check giữa các provider.
+     */
+    byte[] signRaw(byte[] data) throws Exception {
+        Signature signature = Signature.getInstance("SHA1withRSA", providers.getSignatureProvider());
+        signature.initSign(privateKey);
+        signature.update(data);
+        return signature.sign();
+    }
+
+    /**
+     * Ký dữ liệu sử dụng BouncyCastle CMS (PKCS#7) với thuật toán SHA1withRSA.
+     */
+    public String sign(String plainText) {
+        try {
+            if (plainText == null) {
+                throw new IllegalArgumentException("plainText cannot be null in sign method");
+            }
+            byte[] dataToSign = plainText.getBytes(StandardCharsets.UTF_16LE);
+            CMSSignedData sigData = generators.get().generate(new CMSProcessableByteArray(dataToSign), true);
+            return Base64.getEncoder().encodeToString(sigData.getEncoded());
+        } catch (Exception ex) {
+            LoggerUtil.error("Error in sign for authorizationId {}: {}", authorizationId, ex.getMessage());
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private CMSSignedDataGenerator newGenerator() {
+        try {
+            ContentSigner sha1Signer = new JcaContentSignerBuilder("SHA1withRSA")
+                    .setProvider(providers.getSignatureProvider())
+                    .build(privateKey);
+            CMSSignedDataGenerator gen = new CMSSignedDataGenerator();
+            gen.addSignerInfoGenerator(new JcaSignerInfoGeneratorBuilder(digestCalculatorProvider)
+                    .build(sha1Signer, certificate));
+            gen.addCertificates(certs);
+            return gen;
+        } catch (Exception ex) {
+            LoggerUtil.error("Failed to build CMS generator for authorizationId {}: {}", authorizationId, ex.getMessage());
+            throw new RuntimeException(ex);
+        }
+    }
+}
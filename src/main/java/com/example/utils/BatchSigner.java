@@ -0,0 +1,106 @@
+package com.example.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ký song song nhiều payment order (inside/ibft/citad) trên tất cả các core.
+ * Mỗi request được ký bằng {@link SignatureUtil#signAllAuthorizations}: authorizationString chỉ được ghi vào
+ * tree khi mọi authorizer đều ký thành công, request lỗi giữ nguyên như đầu vào. Kết quả giữ đúng thứ tự đầu vào;
+ * lỗi của một request chỉ được ghi nhận vào kết quả của request đó.
+ */
+public class BatchSigner {
+    private static final ExecutorService SHARED_EXECUTOR = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), new SignerThreadFactory());
+
+    public static List<Result> signAll(Collection<? extends JsonNode> requests) {
+        return signAll(requests, SHARED_EXECUTOR);
+    }
+
+    public static List<Result> signAll(Collection<? extends JsonNode> requests, ExecutorService executor) {
+        if (requests == null) {
+            throw new IllegalArgumentException("requests cannot be null");
+        }
+        LoggerUtil.info("Batch signing {} requests", requests.size());
+        List<CompletableFuture<Result>> futures = new ArrayList<>(requests.size());
+        int index = 0;
+        for (JsonNode request : requests) {
+            final int position = index++;
+            futures.add(CompletableFuture.supplyAsync(() -> signOne(position, request), executor));
+        }
+
+        List<Result> results = new ArrayList<>(futures.size());
+        int failed = 0;
+        for (CompletableFuture<Result> future : futures) {
+            Result result = future.join();
+            if (!result.isSuccess()) {
+                failed++;
+            }
+            results.add(result);
+        }
+        LoggerUtil.info("Batch signing finished: {} succeeded, {} failed", results.size() - failed, failed);
+        return results;
+    }
+
+    private static Result signOne(int index, JsonNode request) {
+        try {
+            if (!(request instanceof ObjectNode)) {
+                throw new IllegalArgumentException("request must be a JSON object");
+            }
+            JsonNode authorizations = request.path("requestParameters").path("authorizations");
+            if (!authorizations.isArray() || authorizations.isEmpty()) {
+                throw new IllegalArgumentException("requestParameters.authorizations is missing or empty");
+            }
+            Map<String, String> authorizationStrings = SignatureUtil.signAllAuthorizations((ObjectNode) request);
+            return new Result(index, request, authorizationStrings, null);
+        } catch (Exception e) {
+            LoggerUtil.error("Failed to sign request at index {}: {}", index, e.getMessage());
+            return new Result(index, request, Collections.emptyMap(), e);
+        }
+    }
+
+    /**
+     * Kết quả ký của một request trong batch.
+     */
+    public static class Result {
+        private final int index;
+        private final JsonNode request;
+        private final Map<String, String> authorizationStrings;
+        private final Exception error;
+
+        Result(int index, JsonNode request, Map<String, String> authorizationStrings, Exception error) {
+            this.index = index;
+            this.request = request;
+            this.authorizationStrings = Collections.unmodifiableMap(authorizationStrings);
+            this.error = error;
+        }
+
+        public int getIndex() { return index; }
+        public JsonNode getRequest() { return request; }
+        public Map<String, String> getAuthorizationStrings() { return authorizationStrings; }
+        public Exception getError() { return error; }
+        public boolean isSuccess() { return error == null; }
+    }
+
+    private static class SignerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "batch-signer-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
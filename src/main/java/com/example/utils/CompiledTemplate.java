@@ -0,0 +1,380 @@
+package com.example.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Request template đã compile thành các đoạn JSON UTF-8 cố định xen kẽ slot cho các field đổi theo request
+ * (requestTrace, requestDateTime, bulkTraceNumber, transactionTraceNumber, authorizationString).
+ * Body được dựng bằng cách ghi lần lượt đoạn cố định và giá trị slot vào buffer dùng lại theo thread, không dựng cây
+ * Jackson. Kết quả trùng từng byte với mapper.writeValueAsString của cây template sau khi patch cùng giá trị, nên
+ * đoạn requestParameters.data trong body chính là chuỗi mà {@link SignatureUtil#hashDataWithSha256} băm; chữ ký
+ * được tính trên đoạn đó ngay khi ghi xong rồi điền vào các slot authorizationString phía sau.
+ */
+public class CompiledTemplate {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String SENTINEL_PREFIX = "${slot:";
+    private static final ThreadLocal<Buffer> BUFFERS = ThreadLocal.withInitial(Buffer::new);
+
+    public enum SlotType {
+        REQUEST_TRACE,
+        REQUEST_DATE_TIME,
+        BULK_TRACE_NUMBER,
+        TRANSACTION_TRACE_NUMBER,
+        AUTHORIZATION_STRING
+    }
+
+    private final String key;
+    private final Part[] parts;
+    private final int transactionCount;
+    private final boolean bulk;
+    private final List<String> transactionTypes;
+    private final List<String> authorizationIds;
+    private final int sizeHint;
+
+    private CompiledTemplate(String key, Part[] parts, int transactionCount, boolean bulk, List<String> transactionTypes,
+                             List<String> authorizationIds) {
+        this.key = key;
+        this.parts = parts;
+        this.transactionCount = transactionCount;
+        this.bulk = bulk;
+        this.transactionTypes = transactionTypes;
+        this.authorizationIds = authorizationIds;
+        int size = 0;
+        for (Part part : parts) {
+            size += part.literal != null ? part.literal.length : 48;
+        }
+        this.sizeHint = size;
+    }
+
+    /**
+     * Compile template đã được {@link TemplateRegistry} kiểm tra cấu trúc; template không bị sửa.
+     */
+    public static CompiledTemplate compile(String key, ObjectNode template) {
+        ObjectNode marked = template.deepCopy();
+        List<Part> slots = new ArrayList<>();
+        ObjectNode data = (ObjectNode) marked.path("requestParameters").path("data");
+
+        mark(marked, "requestTrace", SlotType.REQUEST_TRACE, 0, slots);
+        mark(marked, "requestDateTime", SlotType.REQUEST_DATE_TIME, 0, slots);
+        boolean bulk = data.path("transactions").isArray();
+        int transactionCount;
+        List<String> transactionTypes = new ArrayList<>();
+        if (bulk) {
+            mark(data, "bulkTraceNumber", SlotType.BULK_TRACE_NUMBER, 0, slots);
+            transactionCount = data.path("transactions").size();
+            for (int i = 0; i < transactionCount; i++) {
+                ObjectNode transaction = (ObjectNode) data.path("transactions").get(i);
+                transactionTypes.add(transaction.path("transactionType").asText());
+                mark(transaction, "transactionTraceNumber", SlotType.TRANSACTION_TRACE_NUMBER, i, slots);
+            }
+        } else {
+            transactionCount = 1;
+            transactionTypes.add(data.path("transaction").path("transactionType").asText());
+            mark((ObjectNode) data.path("transaction"), "transactionTraceNumber", SlotType.TRANSACTION_TRACE_NUMBER, 0, slots);
+        }
+        List<String> authorizationIds = new ArrayList<>();
+        for (JsonNode authorization : marked.path("requestParameters").path("authorizations")) {
+            authorizationIds.add(authorization.path("authorizationId").asText());
+            mark((ObjectNode) authorization, "authorizationString", SlotType.AUTHORIZATION_STRING,
+                    authorizationIds.size() - 1, slots);
+        }
+
+        String json;
+        String dataJson;
+        try {
+            json = MAPPER.writeValueAsString(marked);
+            dataJson = MAPPER.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize template " + key, e);
+        }
+        int dataStart = json.indexOf(dataJson);
+        if (dataStart < 0 || json.indexOf(dataJson, dataStart + 1) >= 0) {
+            throw new IllegalArgumentException("Cannot locate requestParameters.data in template " + key);
+        }
+        int dataEnd = dataStart + dataJson.length();
+
+        // Cắt chuỗi JSON tại vị trí từng slot (kể cả dấu nháy) và tại biên của data
+        List<Part> parts = new ArrayList<>();
+        List<int[]> cuts = new ArrayList<>();
+        for (int i = 0; i < slots.size(); i++) {
+            String sentinel = "\"" + sentinel(i) + "\"";
+            int at = json.indexOf(sentinel);
+            if (at < 0 || json.indexOf(sentinel, at + 1) >= 0) {
+                throw new IllegalArgumentException("Slot " + slots.get(i) + " is not unique in template " + key);
+            }
+            cuts.add(new int[]{at, at + sentinel.length(), i});
+        }
+        cuts.add(new int[]{dataStart, dataStart, -1});
+        cuts.add(new int[]{dataEnd, dataEnd, -2});
+        cuts.sort((a, b) -> Integer.compare(a[0], b[0]));
+        int position = 0;
+        boolean dataWritten = false;
+        for (int[] cut : cuts) {
+            if (cut[0] > position) {
+                parts.add(Part.literal(json.substring(position, cut[0]).getBytes(StandardCharsets.UTF_8)));
+            }
+            if (cut[2] == -1) {
+                parts.add(Part.DATA_START);
+            } else if (cut[2] == -2) {
+                parts.add(Part.DATA_END);
+                dataWritten = true;
+            } else {
+                Part slot = slots.get(cut[2]);
+                if (slot.slotType == SlotType.AUTHORIZATION_STRING && !dataWritten) {
+                    throw new IllegalArgumentException("authorizations must follow requestParameters.data in template " + key);
+                }
+                parts.add(slot);
+            }
+            position = cut[1];
+        }
+        if (position < json.length()) {
+            parts.add(Part.literal(json.substring(position).getBytes(StandardCharsets.UTF_8)));
+        }
+        return new CompiledTemplate(key, parts.toArray(new Part[0]), transactionCount, bulk,
+                Collections.unmodifiableList(transactionTypes), Collections.unmodifiableList(authorizationIds));
+    }
+
+    private static void mark(ObjectNode node, String field, SlotType type, int index, List<Part> slots) {
+        if (node.has(field) && node.get(field).asText().startsWith(SENTINEL_PREFIX)) {
+            throw new IllegalArgumentException("Template value of " + field + " clashes with the slot marker");
+        }
+        node.put(field, sentinel(slots.size()));
+        slots.add(Part.slot(type, index));
+    }
+
+    private static String sentinel(int slot) {
+        return SENTINEL_PREFIX + slot + "}";
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public boolean isBulk() {
+        return bulk;
+    }
+
+    /**
+     * Số slot transactionTraceNumber: 1 với template giao dịch đơn, số phần tử transactions với template bulk.
+     */
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    /**
+     * transactionType của từng giao dịch theo thứ tự slot transactionTraceNumber (để chọn prefix trace number).
+     */
+    public List<String> getTransactionTypes() {
+        return transactionTypes;
+    }
+
+    public List<String> getAuthorizationIds() {
+        return authorizationIds;
+    }
+
+    public Values newValues() {
+        return new Values(transactionCount);
+    }
+
+    /**
+     * Dựng và ký body; mảng trả về là bản sao, buffer nội bộ được dùng lại cho lần gọi sau trên cùng thread.
+     */
+    public byte[] render(Values values) {
+        Buffer buffer = fill(values);
+        return Arrays.copyOf(buffer.bytes, buffer.size);
+    }
+
+    /**
+     * Dựng và ký body rồi ghi thẳng ra stream (vd. output stream của HTTP request) mà không cấp phát mảng mới.
+     */
+    public void writeTo(OutputStream out, Values values) throws IOException {
+        Buffer buffer = fill(values);
+        out.write(buffer.bytes, 0, buffer.size);
+    }
+
+    private Buffer fill(Values values) {
+        long start = System.nanoTime();
+        long signingNanos = 0;
+        Buffer buffer = BUFFERS.get();
+        buffer.reset(sizeHint);
+        int dataStart = -1;
+        List<String> signatures = null;
+        for (Part part : parts) {
+            if (part.literal != null) {
+                buffer.write(part.literal);
+            } else if (part == Part.DATA_START) {
+                dataStart = buffer.size;
+            } else if (part == Part.DATA_END) {
+                long signStart = System.nanoTime();
+                String plainText = SignatureUtil.hashDataBytes(buffer.bytes, dataStart, buffer.size - dataStart);
+                signatures = SignatureUtil.signHashed(plainText, authorizationIds);
+                signingNanos = System.nanoTime() - signStart;
+                Metrics.recordOperation(Metrics.OPERATION_SIGNING, signingNanos);
+            } else if (part.slotType == SlotType.AUTHORIZATION_STRING) {
+                buffer.writeString(signatures.get(part.index));
+            } else {
+                buffer.writeString(values.get(part.slotType, part.index));
+            }
+        }
+        Metrics.recordOperation(Metrics.OPERATION_TEMPLATE_BUILD, System.nanoTime() - start - signingNanos);
+        return buffer;
+    }
+
+    /**
+     * Giá trị cho các slot của một request; mọi slot (trừ authorizationString) phải được gán trước khi render.
+     */
+    public static class Values {
+        private String requestTrace;
+        private String requestDateTime;
+        private String bulkTraceNumber;
+        private final String[] transactionTraceNumbers;
+
+        Values(int transactionCount) {
+            this.transactionTraceNumbers = new String[transactionCount];
+        }
+
+        public Values requestTrace(String value) {
+            this.requestTrace = value;
+            return this;
+        }
+
+        public Values requestDateTime(String value) {
+            this.requestDateTime = value;
+            return this;
+        }
+
+        public Values bulkTraceNumber(String value) {
+            this.bulkTraceNumber = value;
+            return this;
+        }
+
+        public Values transactionTraceNumber(int index, String value) {
+            if (index < 0 || index >= transactionTraceNumbers.length) {
+                throw new IllegalArgumentException("Transaction index " + index + " out of range, template has "
+                        + transactionTraceNumbers.length + " transactions");
+            }
+            transactionTraceNumbers[index] = value;
+            return this;
+        }
+
+        String get(SlotType type, int index) {
+            String value;
+            switch (type) {
+                case REQUEST_TRACE:
+                    value = requestTrace;
+                    break;
+                case REQUEST_DATE_TIME:
+                    value = requestDateTime;
+                    break;
+                case BULK_TRACE_NUMBER:
+                    value = bulkTraceNumber;
+                    break;
+                case TRANSACTION_TRACE_NUMBER:
+                    value = transactionTraceNumbers[index];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Slot " + type + " is not supplied by the caller");
+            }
+            if (value == null) {
+                throw new IllegalStateException("No value for slot " + type + (type == SlotType.TRANSACTION_TRACE_NUMBER
+                        ? "[" + index + "]" : ""));
+            }
+            return value;
+        }
+    }
+
+    private static class Part {
+        static final Part DATA_START = new Part(null, null, 0);
+        static final Part DATA_END = new Part(null, null, 0);
+
+        final byte[] literal;
+        final SlotType slotType;
+        final int index;
+
+        private Part(byte[] literal, SlotType slotType, int index) {
+            this.literal = literal;
+            this.slotType = slotType;
+            this.index = index;
+        }
+
+        static Part literal(byte[] bytes) {
+            return new Part(bytes, null, 0);
+        }
+
+        static Part slot(SlotType type, int index) {
+            return new Part(null, type, index);
+        }
+
+        @Override
+        public String toString() {
+            return slotType + "[" + index + "]";
+        }
+    }
+
+    /**
+     * Mảng byte tự giãn; giá trị slot được escape bằng {@link JsonStringEncoder} của Jackson nên giống generator.
+     */
+    private static class Buffer {
+        private byte[] bytes = new byte[4096];
+        private int size;
+
+        void reset(int expected) {
+            size = 0;
+            if (bytes.length < expected) {
+                bytes = new byte[Math.max(expected, bytes.length * 2)];
+            }
+        }
+
+        void write(byte[] chunk) {
+            ensure(chunk.length);
+            System.arraycopy(chunk, 0, bytes, size, chunk.length);
+            size += chunk.length;
+        }
+
+        void writeString(String value) {
+            if (isPlainAscii(value)) {
+                ensure(value.length() + 2);
+                bytes[size++] = '"';
+                for (int i = 0; i < value.length(); i++) {
+                    bytes[size++] = (byte) value.charAt(i);
+                }
+                bytes[size++] = '"';
+                return;
+            }
+            byte[] quoted = JsonStringEncoder.getInstance().quoteAsUTF8(value);
+            ensure(quoted.length + 2);
+            bytes[size++] = '"';
+            System.arraycopy(quoted, 0, bytes, size, quoted.length);
+            size += quoted.length;
+            bytes[size++] = '"';
+        }
+
+        private static boolean isPlainAscii(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x20 || c >= 0x7f || c == '"' || c == '\\') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(size + extra, bytes.length * 2));
+            }
+        }
+    }
+}
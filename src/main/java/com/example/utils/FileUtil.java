@@ -1,34 +1,87 @@
 package com.example.utils;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.example.TestCase;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class FileUtil {
     private static final Logger logger = LoggerFactory.getLogger(FileUtil.class);
     private static final ObjectMapper mapper = new ObjectMapper();
+    private static final ObjectReader testCaseReader = mapper.readerFor(TestCase.class);
     private static final String REQUEST_TEMPLATES_DIR = "requestTemplates/"; // Thư mục chứa các template
 
+    /**
+     * Toàn bộ test case dạng Map (danh sách nhỏ cần truy cập ngẫu nhiên, vd. kịch bản load);
+     * catalog lớn nên dùng {@link #streamTestCases(String)}.
+     */
     public static List<Map<String, Object>> getTestCases(String fileName) throws IOException {
-        logger.info("Reading test cases from file: {}", fileName);
-        try (InputStream inputStream = FileUtil.class.getClassLoader().getResourceAsStream(fileName)) {
-            if (inputStream == null) {
-                logger.error("Cannot find file: {}", fileName);
-                throw new IllegalArgumentException("Cannot find file: " + fileName);
-            }
-            List<Map<String, Object>> testCases = mapper.readValue(inputStream, new TypeReference<List<Map<String, Object>>>() {});
-            logger.info("Successfully read {} test cases from file: {}", testCases.size(), fileName);
-            return testCases;
+        try (Stream<TestCase> testCases = streamTestCases(fileName)) {
+            return testCases.map(TestCase::toMap).collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Đọc test case lần lượt bằng streaming parser, mỗi lần chỉ giữ một {@link TestCase} trong bộ nhớ.
+     * File có thể là một mảng JSON hoặc JSONL (mỗi dòng một object); tìm trên classpath trước, sau đó trên ổ đĩa.
+     * Stream giữ file mở nên caller phải đóng stream (try-with-resources, hoặc trả về từ @TestFactory để JUnit đóng).
+     */
+    public static Stream<TestCase> streamTestCases(String fileName) throws IOException {
+        logger.info("Streaming test cases from file: {}", fileName);
+        InputStream inputStream = openTestCases(fileName);
+        MappingIterator<TestCase> iterator;
+        try {
+            iterator = testCaseReader.readValues(inputStream);
         } catch (IOException e) {
+            inputStream.close();
             logger.error("Failed to parse JSON from file: {}", fileName, e);
             throw e;
         }
+        AtomicLong count = new AtomicLong();
+        Spliterator<TestCase> spliterator = Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false)
+                .peek(testCase -> count.incrementAndGet())
+                .onClose(() -> {
+                    try {
+                        iterator.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Failed to close test case file: " + fileName, e);
+                    }
+                    logger.info("Read {} test cases from file: {}", count.get(), fileName);
+                });
+    }
+
+    private static InputStream openTestCases(String fileName) throws IOException {
+        InputStream inputStream = FileUtil.class.getClassLoader().getResourceAsStream(fileName);
+        if (inputStream != null) {
+            return inputStream;
+        }
+        Path path = Paths.get(fileName);
+        if (Files.isRegularFile(path)) {
+            return Files.newInputStream(path);
+        }
+        logger.error("Cannot find file: {}", fileName);
+        throw new IllegalArgumentException("Cannot find file: " + fileName);
     }
 
     public static Object getRequestTemplate(String key) throws IOException {
@@ -0,0 +1,249 @@
+package com.example.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Nạp private key + certificate từ các keystore PKCS#12 và đăng ký vào {@link SignerRegistry}.
+ * Cấu hình (trong signers.properties):
+ * <pre>
+ * keystore.&lt;name&gt;.path=075192000178.p12
+ * keystore.&lt;name&gt;.password=12345678
+ * keystore.&lt;name&gt;.alias.&lt;alias&gt;=&lt;authorizationId&gt;[,&lt;authorizationId&gt;...]
+ * </pre>
+ * Keystore nằm trên filesystem được theo dõi bằng WatchService; khi file đổi, key mới được nạp đầy đủ
+ * rồi mới thay vào registry, nên các thao tác ký đang chạy không bị chặn và không đọc lại file.
+ */
+public class KeyStoreSignerProvider implements Closeable {
+    private static final String PREFIX = "keystore.";
+
+    private final SignerRegistry registry;
+    private final Map<String, KeyStoreSource> sources = new LinkedHashMap<>();
+    private volatile WatchService watchService;
+    private Thread watcherThread;
+
+    public KeyStoreSignerProvider(SignerRegistry registry, Properties config) {
+        this.registry = registry;
+        Set<String> names = new TreeSet<>();
+        for (String key : config.stringPropertyNames()) {
+            if (key.startsWith(PREFIX) && key.endsWith(".path")) {
+                names.add(key.substring(PREFIX.length(), key.length() - ".path".length()));
+            }
+        }
+        for (String name : names) {
+            String base = PREFIX + name;
+            Map<String, List<String>> aliases = new LinkedHashMap<>();
+            String aliasPrefix = base + ".alias.";
+            for (String key : new TreeSet<>(config.stringPropertyNames())) {
+                if (key.startsWith(aliasPrefix)) {
+                    List<String> authorizationIds = new ArrayList<>();
+                    for (String id : config.getProperty(key).split(",")) {
+                        if (!id.trim().isEmpty()) {
+                            authorizationIds.add(id.trim());
+                        }
+                    }
+                    aliases.put(key.substring(aliasPrefix.length()), authorizationIds);
+                }
+            }
+            if (aliases.isEmpty()) {
+                throw new IllegalArgumentException("No alias mapping configured for keystore: " + name);
+            }
+            sources.put(name, new KeyStoreSource(name, config.getProperty(base + ".path"),
+                    config.getProperty(base + ".password", "").toCharArray(),
+                    config.getProperty(base + ".type", "PKCS12"), aliases));
+        }
+    }
+
+    public static boolean isConfigured(Properties config) {
+        for (String key : config.stringPropertyNames()) {
+            if (key.startsWith(PREFIX)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Nạp tất cả keystore và đăng ký signer cho từng authorizationId đã ánh xạ.
+     */
+    public void loadAll() {
+        for (KeyStoreSource source : sources.values()) {
+            reload(source);
+        }
+    }
+
+    /**
+     * Bắt đầu theo dõi các keystore trên filesystem bằng WatchService (daemon thread).
+     */
+    public synchronized void startWatching() throws IOException {
+        if (watchService != null) {
+            return;
+        }
+        WatchService service = FileSystems.getDefault().newWatchService();
+        Set<Path> directories = new HashSet<>();
+        for (KeyStoreSource source : sources.values()) {
+            if (source.file != null && directories.add(source.file.getParent())) {
+                source.file.getParent().register(service,
+                        StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                LoggerUtil.info("Watching keystore directory: {}", source.file.getParent());
+            }
+        }
+        if (directories.isEmpty()) {
+            service.close();
+            LoggerUtil.info("No filesystem keystore to watch");
+            return;
+        }
+        watchService = service;
+        watcherThread = new Thread(() -> watchLoop(service), "keystore-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watchService = null;
+        }
+    }
+
+    private void watchLoop(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                Path directory = (Path) key.watchable();
+                Set<KeyStoreSource> changed = new HashSet<>();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        changed.addAll(sources.values());
+                        continue;
+                    }
+                    Path file = directory.resolve((Path) event.context());
+                    for (KeyStoreSource source : sources.values()) {
+                        if (file.equals(source.file)) {
+                            changed.add(source);
+                        }
+                    }
+                }
+                key.reset();
+                for (KeyStoreSource source : changed) {
+                    LoggerUtil.info("Keystore {} changed, reloading: {}", source.name, source.file);
+                    try {
+                        reload(source);
+                    } catch (RuntimeException e) {
+                        // Giữ nguyên key cũ nếu file mới chưa ghi xong hoặc sai mật khẩu
+                        LoggerUtil.error("Failed to reload keystore {}, keeping previous key material: {}", source.name, e.getMessage());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            LoggerUtil.info("Keystore watcher stopped");
+        }
+    }
+
+    private void reload(KeyStoreSource source) {
+        KeyStore keyStore = source.load();
+        // Dựng toàn bộ signer mới trước, chỉ thay vào registry khi mọi alias đều hợp lệ
+        List<AuthorizationSigner> signers = new ArrayList<>();
+        try {
+            for (Map.Entry<String, List<String>> alias : source.aliases.entrySet()) {
+                PrivateKey privateKey = (PrivateKey) keyStore.getKey(alias.getKey(), source.password);
+                X509Certificate certificate = (X509Certificate) keyStore.getCertificate(alias.getKey());
+                if (privateKey == null || certificate == null) {
+                    throw new IllegalArgumentException("Alias " + alias.getKey() + " has no private key entry in keystore: " + source.name);
+                }
+                for (String authorizationId : alias.getValue()) {
+                    signers.add(registry.newSigner(authorizationId, certificate, privateKey));
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to read key entries from keystore: " + source.name, e);
+        }
+        for (AuthorizationSigner signer : signers) {
+            registry.register(signer);
+        }
+        LoggerUtil.info("Loaded {} signer(s) from keystore {}", signers.size(), source.name);
+    }
+
+    private static class KeyStoreSource {
+        private final String name;
+        private final String location;
+        private final Path file;
+        private final char[] password;
+        private final String type;
+        private final Map<String, List<String>> aliases;
+
+        KeyStoreSource(String name, String location, char[] password, String type, Map<String, List<String>> aliases) {
+            this.name = name;
+            this.location = location;
+            this.file = resolveFile(location);
+            this.password = password;
+            this.type = type;
+            this.aliases = aliases;
+        }
+
+        KeyStore load() {
+            try (InputStream stream = file != null ? Files.newInputStream(file)
+                    : KeyStoreSignerProvider.class.getClassLoader().getResourceAsStream(location)) {
+                if (stream == null) {
+                    throw new IllegalArgumentException("Cannot find keystore file at: " + location);
+                }
+                KeyStore keyStore = KeyStore.getInstance(type);
+                keyStore.load(stream, password);
+                return keyStore;
+            } catch (IllegalArgumentException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to load keystore " + name + " from " + location, e);
+            }
+        }
+
+        /**
+         * Trả về Path nếu keystore nằm trên filesystem (kể cả thư mục classes), null nếu nằm trong jar.
+         */
+        private static Path resolveFile(String location) {
+            if (location == null || location.trim().isEmpty()) {
+                throw new IllegalArgumentException("keystore path cannot be null or empty");
+            }
+            Path path = Paths.get(location);
+            if (Files.isRegularFile(path)) {
+                return path.toAbsolutePath();
+            }
+            URL resource = KeyStoreSignerProvider.class.getClassLoader().getResource(location);
+            if (resource != null && "file".equals(resource.getProtocol())) {
+                try {
+                    return Paths.get(resource.toURI());
+                } catch (Exception e) {
+                    return null;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram độ trễ log-linear (độ phân giải micro giây, sai số tương đối ~3%) ghi lock-free từ nhiều thread.
+ * Bộ nhớ cố định (~2k bucket) bất kể số mẫu, nên dùng được cho các lần chạy tải dài.
+ */
+public class LatencyHistogram {
+    // Giá trị < 64 µs có bucket riêng; mỗi khoảng [2^k, 2^(k+1)) phía trên được chia thành 32 bucket
+    private static final int LINEAR_BUCKETS = 64;
+    private static final int SUB_BUCKETS = 32;
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int BUCKET_COUNT = LINEAR_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    public void record(long duration, TimeUnit unit) {
+        long micros = Math.max(0, unit.toMicros(duration));
+        buckets.incrementAndGet(indexOf(micros));
+        count.increment();
+        sumMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : sumMicros.sum() / 1000.0 / n;
+    }
+
+    public double getMaxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+
+    public double getSumMillis() {
+        return sumMicros.sum() / 1000.0;
+    }
+
+    /**
+     * Số mẫu có giá trị &lt;= upperBoundMillis (dùng cho bucket cố định kiểu Prometheus).
+     */
+    public long countAtOrBelow(double upperBoundMillis) {
+        long limit = (long) (upperBoundMillis * 1000);
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (upperBoundOf(i) > limit) {
+                break;
+            }
+            total += buckets.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Phân vị (0..100) tính bằng millisecond; trả về cận trên của bucket chứa phân vị đó.
+     */
+    public double percentileMillis(double percentile) {
+        long n = count.sum();
+        if (n == 0) {
+            return 0.0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), maxMicros.get()) / 1000.0;
+            }
+        }
+        return getMaxMillis();
+    }
+
+    static int indexOf(long micros) {
+        if (micros < LINEAR_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        return LINEAR_BUCKETS + (exponent - 1) * SUB_BUCKETS + (int) ((micros >>> exponent) - SUB_BUCKETS);
+    }
+
+    static long upperBoundOf(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        long subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << exponent) - 1;
+    }
+}
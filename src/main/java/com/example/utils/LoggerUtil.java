@@ -1,10 +1,25 @@
 package com.example.utils;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public class LoggerUtil {
     private static final Logger logger = LoggerFactory.getLogger("API_TEST");
+    // Logger riêng cho event JSON (mỗi dòng một object), xem appender EVENTS trong logback.xml
+    private static final Logger eventLogger = LoggerFactory.getLogger("API_EVENT");
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    public static boolean isInfoEnabled() {
+        return logger.isInfoEnabled();
+    }
 
     public static void info(String message, Object... args) {
         logger.info(message, args);
@@ -17,4 +32,65 @@ public class LoggerUtil {
     public static void error(String message, Object... args) {
         logger.error(message, args);
     }
-}
\ No newline at end of file
+
+    public static boolean isEventEnabled() {
+        return eventLogger.isInfoEnabled();
+    }
+
+    /**
+     * Bắt đầu một event JSON có cấu trúc, ví dụ
+     * {@code LoggerUtil.event("api_call").field("endpoint", url).field("status", 200).log()}.
+     */
+    public static Event event(String type) {
+        return new Event(type);
+    }
+
+    public static class Event {
+        private final String type;
+        private final Map<String, Object> fields = new LinkedHashMap<>();
+
+        private Event(String type) {
+            this.type = type;
+        }
+
+        /**
+         * Trường có giá trị null bị bỏ qua.
+         */
+        public Event field(String name, Object value) {
+            if (value != null) {
+                fields.put(name, value);
+            }
+            return this;
+        }
+
+        public void log() {
+            if (!eventLogger.isInfoEnabled()) {
+                return;
+            }
+            StringWriter writer = new StringWriter(128 + fields.size() * 32);
+            try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+                generator.writeStartObject();
+                generator.writeStringField("timestamp", Instant.now().toString());
+                generator.writeStringField("event", type);
+                generator.writeStringField("thread", Thread.currentThread().getName());
+                for (Map.Entry<String, Object> entry : fields.entrySet()) {
+                    Object value = entry.getValue();
+                    if (value instanceof Integer || value instanceof Long) {
+                        generator.writeNumberField(entry.getKey(), ((Number) value).longValue());
+                    } else if (value instanceof Number) {
+                        generator.writeNumberField(entry.getKey(), ((Number) value).doubleValue());
+                    } else if (value instanceof Boolean) {
+                        generator.writeBooleanField(entry.getKey(), (Boolean) value);
+                    } else {
+                        generator.writeStringField(entry.getKey(), value.toString());
+                    }
+                }
+                generator.writeEndObject();
+            } catch (IOException e) {
+                logger.warn("Failed to serialize {} event: {}", type, e.getMessage());
+                return;
+            }
+            eventLogger.info(writer.toString());
+        }
+    }
+}
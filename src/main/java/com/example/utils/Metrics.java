@@ -0,0 +1,202 @@
+package com.example.utils;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry metric trong process: histogram độ trễ và số lần gọi theo HTTP status cho từng endpoint,
+ * histogram thời gian cho các thao tác nội bộ (ký, dựng template).
+ * Xuất ra Prometheus text format bằng {@link #scrape()}, ghi file bằng {@link #writeTo(Path)} hoặc phục vụ qua
+ * HTTP tại /metrics. System property metrics.file (ghi khi JVM tắt) và metrics.port bật export tự động.
+ */
+public class Metrics {
+    public static final String OPERATION_SIGNING = "signing";
+    public static final String OPERATION_TEMPLATE_BUILD = "template_build";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static final Map<String, LatencyHistogram> REQUEST_LATENCY = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> REQUEST_COUNT = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> OPERATION_LATENCY = new ConcurrentHashMap<>();
+
+    static {
+        String file = System.getProperty("metrics.file");
+        if (file != null && !file.trim().isEmpty()) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> writeTo(Paths.get(file.trim())), "metrics-export"));
+        }
+        Integer port = Integer.getInteger("metrics.port");
+        if (port != null) {
+            startHttpEndpoint(port);
+        }
+    }
+
+    @FunctionalInterface
+    public interface TimedCall<T> {
+        T call() throws Exception;
+    }
+
+    /**
+     * Ghi một lần gọi endpoint; status &lt;= 0 nghĩa là không nhận được response (lỗi kết nối, timeout).
+     */
+    public static void recordRequest(String endpoint, int status, long durationNanos) {
+        REQUEST_LATENCY.computeIfAbsent(endpoint, k -> new LatencyHistogram()).record(durationNanos, TimeUnit.NANOSECONDS);
+        String statusLabel = status > 0 ? String.valueOf(status) : "error";
+        REQUEST_COUNT.computeIfAbsent(endpoint + '\u0000' + statusLabel, k -> new LongAdder()).increment();
+    }
+
+    public static void recordOperation(String operation, long durationNanos) {
+        OPERATION_LATENCY.computeIfAbsent(operation, k -> new LatencyHistogram()).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Chạy call và ghi thời gian vào histogram của operation, kể cả khi call ném exception.
+     */
+    public static <T> T time(String operation, TimedCall<T> call) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return call.call();
+        } finally {
+            recordOperation(operation, System.nanoTime() - start);
+        }
+    }
+
+    public static LatencyHistogram requestLatency(String endpoint) {
+        return REQUEST_LATENCY.get(endpoint);
+    }
+
+    public static LatencyHistogram operationLatency(String operation) {
+        return OPERATION_LATENCY.get(operation);
+    }
+
+    public static long requestCount(String endpoint, int status) {
+        LongAdder count = REQUEST_COUNT.get(endpoint + '\u0000' + (status > 0 ? String.valueOf(status) : "error"));
+        return count == null ? 0 : count.sum();
+    }
+
+    public static void reset() {
+        REQUEST_LATENCY.clear();
+        REQUEST_COUNT.clear();
+        OPERATION_LATENCY.clear();
+    }
+
+    /**
+     * Snapshot toàn bộ metric ở Prometheus text exposition format (version 0.0.4).
+     */
+    public static String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        appendSummary(out, "api_request_duration_seconds", "Latency of payment API calls by endpoint",
+                "endpoint", REQUEST_LATENCY);
+
+        out.append("# HELP api_requests_total Payment API calls by endpoint and HTTP status\n");
+        out.append("# TYPE api_requests_total counter\n");
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(REQUEST_COUNT).entrySet()) {
+            int separator = entry.getKey().indexOf('\u0000');
+            out.append("api_requests_total{endpoint=\"").append(escape(entry.getKey().substring(0, separator)))
+                    .append("\",status=\"").append(entry.getKey().substring(separator + 1)).append("\"} ")
+                    .append(entry.getValue().sum()).append('\n');
+        }
+
+        appendSummary(out, "operation_duration_seconds", "Duration of signing and template building",
+                "operation", OPERATION_LATENCY);
+        return out.toString();
+    }
+
+    /**
+     * Ghi snapshot ra file (qua file tạm rồi rename để scraper đọc file không thấy nửa chừng).
+     */
+    public static void writeTo(Path file) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            Files.write(temp, scrape().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write metrics to " + file, e);
+        }
+    }
+
+    /**
+     * HTTP endpoint tối giản phục vụ GET /metrics trên port cho trước (0 = port ngẫu nhiên), thread daemon.
+     */
+    public static HttpServer startHttpEndpoint(int port) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+            server.createContext("/metrics", exchange -> {
+                byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            });
+            server.setExecutor(Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "metrics-http");
+                thread.setDaemon(true);
+                return thread;
+            }));
+            // Thread HTTP-Dispatcher kế thừa cờ daemon của thread gọi start(), nên start từ thread daemon
+            // để endpoint không giữ JVM sống sau khi test/load runner kết thúc
+            Thread starter = new Thread(server::start, "metrics-http-start");
+            starter.setDaemon(true);
+            starter.start();
+            starter.join();
+            LoggerUtil.info("Metrics endpoint listening on http://localhost:{}/metrics", server.getAddress().getPort());
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start metrics endpoint on port " + port, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while starting metrics endpoint", e);
+        }
+    }
+
+    private static void appendSummary(StringBuilder out, String name, String help, String label,
+                                      Map<String, LatencyHistogram> histograms) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" summary\n");
+        Map<String, LatencyHistogram> sorted = new TreeMap<>(histograms);
+        for (Map.Entry<String, LatencyHistogram> entry : sorted.entrySet()) {
+            String labelValue = label + "=\"" + escape(entry.getKey()) + "\"";
+            LatencyHistogram histogram = entry.getValue();
+            for (double quantile : QUANTILES) {
+                out.append(name).append('{').append(labelValue).append(",quantile=\"").append(quantile).append("\"} ")
+                        .append(seconds(histogram.percentileMillis(quantile * 100))).append('\n');
+            }
+            out.append(name).append("_sum{").append(labelValue).append("} ").append(seconds(histogram.getSumMillis())).append('\n');
+            out.append(name).append("_count{").append(labelValue).append("} ").append(histogram.getCount()).append('\n');
+        }
+        out.append("# HELP ").append(name).append("_max Maximum observed value of ").append(name).append('\n');
+        out.append("# TYPE ").append(name).append("_max gauge\n");
+        for (Map.Entry<String, LatencyHistogram> entry : sorted.entrySet()) {
+            out.append(name).append("_max{").append(label).append("=\"").append(escape(entry.getKey())).append("\"} ")
+                    .append(seconds(entry.getValue().getMaxMillis())).append('\n');
+        }
+    }
+
+    private static String seconds(double millis) {
+        return String.format(Locale.ROOT, "%.6f", millis / 1000.0);
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
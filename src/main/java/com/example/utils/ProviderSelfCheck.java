@@ -0,0 +1,61 @@
+package com.example.utils;
+
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.SignerInformation;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoVerifierBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Kiểm tra signer dùng provider khác BC cho ra kết quả tương đương BouncyCastle:
+ * raw SHA1withRSA giống hệt từng byte, digest giống nhau và CMS của cả hai đều verify được
+ * bằng public key của certificate với cùng nội dung.
+ */
+public class ProviderSelfCheck {
+    private static final String PROBE = "7c52877e014e66cc8bd708dbb8d64deac53ebfd450429bc95b7530bc1d8d207a";
+
+    public static void verify(AuthorizationSigner candidate) {
+        String authorizationId = candidate.getAuthorizationId();
+        try {
+            AuthorizationSigner reference = candidate.withProviders(SignerProviders.BOUNCY_CASTLE);
+            byte[] probe = PROBE.getBytes(StandardCharsets.UTF_16LE);
+
+            if (!Arrays.equals(candidate.signRaw(probe), reference.signRaw(probe))) {
+                throw new IllegalStateException("SHA1withRSA output differs between providers "
+                        + candidate.getProviders() + " and " + reference.getProviders());
+            }
+
+            byte[] candidateDigest = MessageDigest.getInstance("SHA-1", candidate.getProviders().getDigestProvider()).digest(probe);
+            byte[] referenceDigest = MessageDigest.getInstance("SHA-1", reference.getProviders().getDigestProvider()).digest(probe);
+            if (!Arrays.equals(candidateDigest, referenceDigest)) {
+                throw new IllegalStateException("SHA-1 digest differs between providers "
+                        + candidate.getProviders() + " and " + reference.getProviders());
+            }
+
+            verifyCms(candidate, probe);
+            verifyCms(reference, probe);
+            LoggerUtil.info("Provider self-check passed for authorizationId {} ({})", authorizationId, candidate.getProviders());
+        } catch (IllegalStateException ex) {
+            LoggerUtil.error("Provider self-check failed for authorizationId {}: {}", authorizationId, ex.getMessage());
+            throw ex;
+        } catch (Exception ex) {
+            LoggerUtil.error("Provider self-check failed for authorizationId {}: {}", authorizationId, ex.getMessage());
+            throw new IllegalStateException("Provider self-check failed for authorizationId: " + authorizationId, ex);
+        }
+    }
+
+    private static void verifyCms(AuthorizationSigner signer, byte[] probe) throws Exception {
+        CMSSignedData cms = new CMSSignedData(Base64.getDecoder().decode(signer.sign(PROBE)));
+        SignerInformation signerInfo = cms.getSignerInfos().getSigners().iterator().next();
+        // Verify bằng public key để không phụ thuộc thời hạn hiệu lực của certificate
+        boolean valid = signerInfo.verify(new JcaSimpleSignerInfoVerifierBuilder()
+                .setProvider("BC")
+                .build(signer.getCertificate().getPublicKey()));
+        if (!valid || !Arrays.equals(probe, (byte[]) cms.getSignedContent().getContent())) {
+            throw new IllegalStateException("CMS signature does not verify for providers " + signer.getProviders());
+        }
+    }
+}
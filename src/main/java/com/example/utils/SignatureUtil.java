@@ -2,208 +2,197 @@ package com.example.utils;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.bouncycastle.cert.jcajce.JcaCertStore;
-import org.bouncycastle.cms.CMSProcessableByteArray;
-import org.bouncycastle.cms.CMSSignedData;
-import org.bouncycastle.cms.CMSSignedDataGenerator;
-import org.bouncycastle.cms.CMSTypedData;
-import org.bouncycastle.cms.jcajce.JcaSignerInfoGeneratorBuilder;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
-import org.bouncycastle.openssl.PEMEncryptedKeyPair;
-import org.bouncycastle.openssl.PEMKeyPair;
-import org.bouncycastle.openssl.PEMParser;
-import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
-import org.bouncycastle.openssl.jcajce.JcePEMDecryptorProviderBuilder;
-import org.bouncycastle.operator.ContentSigner;
-import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
-import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
-import org.bouncycastle.util.Store;
 
-import java.io.FileInputStream;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.security.*;
-import java.security.cert.CertificateFactory;
-import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class SignatureUtil {
     private static final ObjectMapper mapper = new ObjectMapper();
-
-    private static final String CER_FILE_A  = "075192000178_1.cer";
-    private static final String CER_FILE_B  = "075192000178_2.cer";
-    private static final String KEY_FILE    = "075192000178.key";
-    private static final String KEY_PASSWORD = "12345678";
-
-    private static final String AUTH_ID_A   = "1526fa6a-4388-4234-99e5-846ba2c6e328";
-    private static final String AUTH_ID_B   = "72d9c963-4a20-40f3-bef1-9b773369826b";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    });
 
     static {
         Security.addProvider(new BouncyCastleProvider());
     }
 
     public static String generateAuthorizationString(Object requestBody, String authorizationId) throws Exception {
+        long start = System.nanoTime();
+        try {
+            String plainText = hashDataWithSha256(extractData(requestBody));
+            return signDataForAuthorization(plainText, authorizationId);
+        } finally {
+            Metrics.recordOperation(Metrics.OPERATION_SIGNING, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Băm data một lần rồi ký song song cho mọi authorizer trong requestParameters.authorizations,
+     * sau đó ghi authorizationString vào từng authorization trong một lượt.
+     */
+    public static Map<String, String> signAllAuthorizations(ObjectNode requestBody) {
         if (requestBody == null) {
             throw new IllegalArgumentException("requestBody cannot be null");
         }
-        JsonNode rootNode = mapper.valueToTree(requestBody);
-        JsonNode requestParameters = rootNode.path("requestParameters");
-        if (requestParameters.isMissingNode()) {
-            throw new IllegalArgumentException("requestParameters is missing in requestBody");
+        JsonNode authorizations = requestBody.path("requestParameters").path("authorizations");
+        if (!authorizations.isArray()) {
+            throw new IllegalArgumentException("authorizations is missing in requestParameters");
         }
-        JsonNode data = requestParameters.path("data");
-        if (data.isMissingNode()) {
-            throw new IllegalArgumentException("data is missing in requestParameters");
-        }
-        String dataString = data.toString();
-        if (dataString == null || dataString.trim().isEmpty()) {
-            throw new IllegalArgumentException("data.toString() is null or empty");
-        }
-        String plainText = hashDataWithSha256(dataString);
-
-        if (AUTH_ID_A.equals(authorizationId)) {
-            return signDataUsingCertAndKey(plainText, CER_FILE_A, KEY_FILE, KEY_PASSWORD);
-        } else if (AUTH_ID_B.equals(authorizationId)) {
-            return signDataUsingCertAndKey(plainText, CER_FILE_B, KEY_FILE, KEY_PASSWORD);
-        } else {
-            throw new IllegalArgumentException("Unknown authorizationId: " + authorizationId);
+        long start = System.nanoTime();
+        try {
+            return signAll(requestBody, (ArrayNode) authorizations);
+        } finally {
+            Metrics.recordOperation(Metrics.OPERATION_SIGNING, System.nanoTime() - start);
         }
     }
 
-    private static String hashDataWithSha256(String input) {
-        try {
-            if (input == null) {
-                throw new IllegalArgumentException("Input for hashDataWithSha256 cannot be null");
+    /**
+     * Ký xong mọi authorizer rồi mới ghi authorizationString, nên khi có lỗi tree không bị sửa.
+     */
+    private static Map<String, String> signAll(ObjectNode requestBody, ArrayNode authorizations) {
+        String plainText = hashDataWithSha256(extractData(requestBody));
+
+        List<String> authorizationIds = new ArrayList<>(authorizations.size());
+        for (JsonNode auth : authorizations) {
+            if (!auth.isObject()) {
+                throw new IllegalArgumentException("authorizations must contain only objects: " + auth);
             }
-            String encBase64 = Base64.getEncoder().encodeToString(input.getBytes(StandardCharsets.UTF_8));
-            LoggerUtil.info("Base64 Data: {}", encBase64);
-            String hexData = computeSHA256(encBase64);
-            LoggerUtil.info("SHA-256 Hex Data: {}", hexData);
-            return hexData;
-        } catch (Exception ex) {
-            LoggerUtil.error("Error in hashDataWithSha256: {}", ex.getMessage());
-            throw new RuntimeException(ex);
+            authorizationIds.add(auth.path("authorizationId").asText());
         }
+        List<String> signatures = signHashed(plainText, authorizationIds);
+
+        Map<String, String> authorizationStrings = new LinkedHashMap<>();
+        int index = 0;
+        for (JsonNode auth : authorizations) {
+            String authorizationString = signatures.get(index++);
+            ((ObjectNode) auth).put("authorizationString", authorizationString);
+            authorizationStrings.put(auth.path("authorizationId").asText(), authorizationString);
+        }
+        return authorizationStrings;
     }
 
-    private static String computeSHA256(String input) {
-        try {
-            if (input == null) {
-                throw new IllegalArgumentException("Input for computeSHA256 cannot be null");
-            }
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hashBytes = digest.digest(input.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hashBytes) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
+    /**
+     * Ký cùng một plainText (hash của data) cho từng authorizationId, song song khi có nhiều authorizer;
+     * kết quả theo đúng thứ tự authorizationIds.
+     */
+    public static List<String> signHashed(String plainText, List<String> authorizationIds) {
+        List<CompletableFuture<String>> signatures = new ArrayList<>(authorizationIds.size());
+        for (String authorizationId : authorizationIds) {
+            signatures.add(authorizationIds.size() == 1
+                    ? CompletableFuture.completedFuture(signDataForAuthorization(plainText, authorizationId))
+                    : CompletableFuture.supplyAsync(() -> signDataForAuthorization(plainText, authorizationId)));
+        }
+        List<String> authorizationStrings = new ArrayList<>(signatures.size());
+        for (CompletableFuture<String> signature : signatures) {
+            try {
+                authorizationStrings.add(signature.join());
+            } catch (CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause() : ex;
             }
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException ex) {
-            LoggerUtil.error("Error in computeSHA256: {}", ex.getMessage());
-            throw new RuntimeException(ex);
         }
+        return authorizationStrings;
     }
 
     /**
-     * Sinh chữ ký số sử dụng certificate từ file .cer và private key từ file .key dùng chung.
+     * Lấy node requestParameters.data từ request body (không copy nếu body đã là JsonNode).
      */
-    private static String signDataUsingCertAndKey(String plainText, String certFilePath, String keyFilePath, String keyPassword) {
-        try {
-            if (plainText == null) {
-                throw new IllegalArgumentException("plainText cannot be null");
-            }
-            // Load certificate từ file .cer
-            X509Certificate certificate = loadCertificate(certFilePath);
-            // Load private key từ file .key dùng chung
-            PrivateKey privateKey = loadPrivateKey(keyFilePath, keyPassword);
-            String signature = sign(plainText, privateKey, certificate);
-            LoggerUtil.info("Generated Signature for {}: {}", certificate.getSubjectDN(), signature);
-            return signature;
-        } catch (Exception ex) {
-            LoggerUtil.error("Error in signDataUsingCertAndKey: {}", ex.getMessage());
-            throw new RuntimeException(ex);
+    public static JsonNode extractData(Object requestBody) {
+        if (requestBody == null) {
+            throw new IllegalArgumentException("requestBody cannot be null");
+        }
+        JsonNode rootNode = requestBody instanceof JsonNode ? (JsonNode) requestBody : mapper.valueToTree(requestBody);
+        JsonNode requestParameters = rootNode.path("requestParameters");
+        if (requestParameters.isMissingNode()) {
+            throw new IllegalArgumentException("requestParameters is missing in requestBody");
         }
+        JsonNode data = requestParameters.path("data");
+        if (data.isMissingNode()) {
+            throw new IllegalArgumentException("data is missing in requestParameters");
+        }
+        return data;
     }
 
     /**
-     * Load certificate từ file .cer sử dụng CertificateFactory.
+     * Băm node data theo dạng stream: JSON (UTF-8) -> Base64 -> SHA-256, không tạo String trung gian.
+     * Kết quả giống hệt SHA-256(Base64(data.toString())) dạng hex chữ thường.
      */
-    private static X509Certificate loadCertificate(String certFilePath) throws Exception {
-        InputStream certStream = SignatureUtil.class.getClassLoader().getResourceAsStream(certFilePath);
-        if (certStream == null) {
-            throw new IllegalArgumentException("Cannot find certificate file at: " + certFilePath);
+    public static String hashDataWithSha256(JsonNode data) {
+        if (data == null || data.isMissingNode()) {
+            throw new IllegalArgumentException("Input for hashDataWithSha256 cannot be null");
         }
-        try {
-            CertificateFactory cf = CertificateFactory.getInstance("X.509");
-            return (X509Certificate) cf.generateCertificate(certStream);
-        } finally {
-            certStream.close();
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        // Ghi qua Writer (không dùng UTF8JsonGenerator) để ký tự ngoài BMP được mã hoá UTF-8 giống String.getBytes
+        try (Writer jsonOut = new OutputStreamWriter(Base64.getEncoder().wrap(
+                new DigestOutputStream(OutputStream.nullOutputStream(), digest)), StandardCharsets.UTF_8)) {
+            mapper.writeValue(jsonOut, data);
+        } catch (IOException ex) {
+            LoggerUtil.error("Error in hashDataWithSha256: {}", ex.getMessage());
+            throw new UncheckedIOException(ex);
         }
+        String hexData = toHex(digest.digest());
+        LoggerUtil.info("SHA-256 Hex Data: {}", hexData);
+        return hexData;
     }
 
     /**
-     * Load private key từ file .key (hoặc .pem) sử dụng PEMParser của BouncyCastle.
+     * Giống {@link #hashDataWithSha256} nhưng trên data đã serialize sẵn (JSON UTF-8 của requestParameters.data),
+     * dùng cho body dựng từ {@link CompiledTemplate}.
      */
-    private static PrivateKey loadPrivateKey(String keyFilePath, String keyPassword) throws Exception {
-        InputStream keyStream = SignatureUtil.class.getClassLoader().getResourceAsStream(keyFilePath);
-        if (keyStream == null) {
-            throw new IllegalArgumentException("Cannot find private key file at: " + keyFilePath);
-        }
-        try (Reader reader = new InputStreamReader(keyStream);
-             PEMParser pemParser = new PEMParser(reader)) {
-            Object object = pemParser.readObject();
-            JcaPEMKeyConverter converter = new JcaPEMKeyConverter().setProvider("BC");
-            if (object instanceof PEMEncryptedKeyPair) {
-                PEMEncryptedKeyPair encKeyPair = (PEMEncryptedKeyPair) object;
-                PEMKeyPair keyPair = encKeyPair.decryptKeyPair(
-                        new JcePEMDecryptorProviderBuilder().build(keyPassword.toCharArray()));
-                return converter.getKeyPair(keyPair).getPrivate();
-            } else if (object instanceof PEMKeyPair) {
-                PEMKeyPair keyPair = (PEMKeyPair) object;
-                return converter.getKeyPair(keyPair).getPrivate();
-            } else if (object instanceof org.bouncycastle.asn1.pkcs.PrivateKeyInfo) {
-                return converter.getPrivateKey((org.bouncycastle.asn1.pkcs.PrivateKeyInfo) object);
-            } else {
-                throw new IllegalArgumentException("Unsupported private key format in file: " + keyFilePath);
-            }
+    public static String hashDataBytes(byte[] json, int offset, int length) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        try (OutputStream base64Out = Base64.getEncoder().wrap(
+                new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+            base64Out.write(json, offset, length);
+        } catch (IOException ex) {
+            LoggerUtil.error("Error in hashDataBytes: {}", ex.getMessage());
+            throw new UncheckedIOException(ex);
         }
+        String hexData = toHex(digest.digest());
+        LoggerUtil.info("SHA-256 Hex Data: {}", hexData);
+        return hexData;
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0x0f];
+            hex[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0x0f];
+        }
+        return new String(hex);
     }
 
     /**
-     * Ký dữ liệu sử dụng BouncyCastle CMS (PKCS#7) với thuật toán SHA1withRSA.
+     * Sinh chữ ký số bằng signer đã nạp sẵn trong {@link SignerRegistry} cho authorizationId.
      */
-    private static String sign(String plainText, PrivateKey privateKey, X509Certificate certificate) {
-        try {
-            if (plainText == null) {
-                throw new IllegalArgumentException("plainText cannot be null in sign method");
-            }
-            byte[] dataToSign = plainText.getBytes(StandardCharsets.UTF_16LE);
-            List<X509Certificate> certList = new ArrayList<>();
-            certList.add(certificate);
-            Store certs = new JcaCertStore(certList);
-            CMSSignedDataGenerator gen = new CMSSignedDataGenerator();
-            ContentSigner sha1Signer = new JcaContentSignerBuilder("SHA1withRSA")
-                    .setProvider("BC")
-                    .build(privateKey);
-            gen.addSignerInfoGenerator(new JcaSignerInfoGeneratorBuilder(
-                    new JcaDigestCalculatorProviderBuilder().setProvider("BC").build())
-                    .build(sha1Signer, certificate));
-            gen.addCertificates(certs);
-            CMSTypedData msg = new CMSProcessableByteArray(dataToSign);
-            CMSSignedData sigData = gen.generate(msg, true);
-            byte[] encoded = Base64.getEncoder().encode(sigData.getEncoded());
-            return new String(encoded);
-        } catch (Exception ex) {
-            LoggerUtil.error("Error in sign: {}", ex.getMessage());
-            throw new RuntimeException(ex);
+    public static String signDataForAuthorization(String plainText, String authorizationId) {
+        if (plainText == null) {
+            throw new IllegalArgumentException("plainText cannot be null");
         }
+        AuthorizationSigner signer = SignerRegistry.getDefault().get(authorizationId);
+        String signature = signer.sign(plainText);
+        LoggerUtil.info("Generated Signature for {}: {}", signer.getCertificate().getSubjectDN(), signature);
+        return signature;
     }
 }
@@ -0,0 +1,70 @@
+package com.example.utils;
+
+import java.security.Security;
+import java.util.Objects;
+
+/**
+ * Chọn JCA provider cho từng thao tác khi ký: raw RSA (SHA1withRSA) và digest calculator của CMS.
+ * Phần dựng CMS luôn dùng BouncyCastle. Mặc định là "BC" cho cả hai, có thể đổi bằng system property
+ * signer.signatureProvider / signer.digestProvider (ví dụ SunRsaSign / SUN).
+ */
+public class SignerProviders {
+    public static final String SIGNATURE_PROVIDER_PROPERTY = "signer.signatureProvider";
+    public static final String DIGEST_PROVIDER_PROPERTY = "signer.digestProvider";
+    public static final SignerProviders BOUNCY_CASTLE = new SignerProviders("BC", "BC");
+
+    private final String signatureProvider;
+    private final String digestProvider;
+
+    public SignerProviders(String signatureProvider, String digestProvider) {
+        this.signatureProvider = requireInstalled(signatureProvider);
+        this.digestProvider = requireInstalled(digestProvider);
+    }
+
+    public static SignerProviders fromSystemProperties() {
+        return new SignerProviders(
+                System.getProperty(SIGNATURE_PROVIDER_PROPERTY, BOUNCY_CASTLE.signatureProvider),
+                System.getProperty(DIGEST_PROVIDER_PROPERTY, BOUNCY_CASTLE.digestProvider));
+    }
+
+    public String getSignatureProvider() {
+        return signatureProvider;
+    }
+
+    public String getDigestProvider() {
+        return digestProvider;
+    }
+
+    private static String requireInstalled(String provider) {
+        if (provider == null || provider.trim().isEmpty()) {
+            throw new IllegalArgumentException("provider name cannot be null or empty");
+        }
+        // BC được đăng ký trong static block của SignerRegistry/SignatureUtil, các provider khác phải có sẵn trong JDK
+        if (!"BC".equals(provider) && Security.getProvider(provider) == null) {
+            throw new IllegalArgumentException("JCA provider is not installed: " + provider);
+        }
+        return provider;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SignerProviders)) {
+            return false;
+        }
+        SignerProviders other = (SignerProviders) o;
+        return signatureProvider.equals(other.signatureProvider) && digestProvider.equals(other.digestProvider);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(signatureProvider, digestProvider);
+    }
+
+    @Override
+    public String toString() {
+        return "signature=" + signatureProvider + ", digest=" + digestProvider;
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.utils;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.openssl.PEMEncryptedKeyPair;
+import org.bouncycastle.openssl.PEMKeyPair;
+import org.bouncycastle.openssl.PEMParser;
+import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
+import org.bouncycastle.openssl.jcajce.JcePEMDecryptorProviderBuilder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.security.PrivateKey;
+import java.security.Security;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registry thread-safe ánh xạ authorizationId -> {@link AuthorizationSigner}.
+ * Certificate và private key chỉ được đọc và giải mã một lần; danh sách authorizer được cấu hình
+ * trong file signers.properties (classpath) hoặc file chỉ định bởi system property "signers.config".
+ * Keystore PKCS#12 (keystore.*) được nạp qua {@link KeyStoreSignerProvider} và tự reload khi file thay đổi.
+ * Provider ký/digest lấy từ {@link SignerProviders}; khác BC thì signer phải qua {@link ProviderSelfCheck}.
+ */
+public class SignerRegistry {
+    public static final String CONFIG_PROPERTY = "signers.config";
+    private static final String DEFAULT_CONFIG = "signers.properties";
+
+    private static volatile SignerRegistry defaultRegistry;
+
+    private final SignerProviders providers;
+    private final ConcurrentMap<String, AuthorizationSigner> signers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, PrivateKey> privateKeys = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, X509Certificate> certificates = new ConcurrentHashMap<>();
+    private final List<KeyStoreSignerProvider> keyStoreProviders = new CopyOnWriteArrayList<>();
+
+    static {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    public SignerRegistry() {
+        this(SignerProviders.BOUNCY_CASTLE);
+    }
+
+    public SignerRegistry(SignerProviders providers) {
+        this.providers = providers;
+    }
+
+    public static SignerRegistry getDefault() {
+        SignerRegistry registry = defaultRegistry;
+        if (registry == null) {
+            synchronized (SignerRegistry.class) {
+                registry = defaultRegistry;
+                if (registry == null) {
+                    registry = new SignerRegistry(SignerProviders.fromSystemProperties());
+                    registry.loadFrom(readConfig());
+                    defaultRegistry = registry;
+                }
+            }
+        }
+        return registry;
+    }
+
+    public AuthorizationSigner get(String authorizationId) {
+        AuthorizationSigner signer = authorizationId == null ? null : signers.get(authorizationId);
+        if (signer == null) {
+            throw new IllegalArgumentException("Unknown authorizationId: " + authorizationId);
+        }
+        return signer;
+    }
+
+    public SignerProviders getProviders() {
+        return providers;
+    }
+
+    public boolean contains(String authorizationId) {
+        return authorizationId != null && signers.containsKey(authorizationId);
+    }
+
+    public Set<String> authorizationIds() {
+        return Collections.unmodifiableSet(new TreeSet<>(signers.keySet()));
+    }
+
+    /**
+     * Đăng ký (hoặc thay thế) signer cho một authorizationId.
+     */
+    public AuthorizationSigner register(AuthorizationSigner signer) {
+        signers.put(signer.getAuthorizationId(), signer);
+        LoggerUtil.info("Registered signer for authorizationId: {}", signer.getAuthorizationId());
+        return signer;
+    }
+
+    /**
+     * Đăng ký signer từ certificate .cer và private key .key trên classpath (hoặc filesystem).
+     */
+    public AuthorizationSigner register(String authorizationId, String certFilePath, String keyFilePath, String keyPassword) {
+        try {
+            X509Certificate certificate = certificates.computeIfAbsent(certFilePath, SignerRegistry::loadCertificate);
+            PrivateKey privateKey = privateKeys.computeIfAbsent(keyFilePath, path -> loadPrivateKey(path, keyPassword));
+            return register(newSigner(authorizationId, certificate, privateKey));
+        } catch (RuntimeException ex) {
+            LoggerUtil.error("Failed to register signer for authorizationId {}: {}", authorizationId, ex.getMessage());
+            throw ex;
+        } catch (Exception ex) {
+            LoggerUtil.error("Failed to register signer for authorizationId {}: {}", authorizationId, ex.getMessage());
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Dựng signer với provider của registry (chưa đăng ký); provider khác BC phải qua self-check.
+     */
+    public AuthorizationSigner newSigner(String authorizationId, X509Certificate certificate, PrivateKey privateKey) throws Exception {
+        AuthorizationSigner signer = new AuthorizationSigner(authorizationId, certificate, privateKey, providers);
+        if (!SignerProviders.BOUNCY_CASTLE.equals(providers)) {
+            ProviderSelfCheck.verify(signer);
+        }
+        return signer;
+    }
+
+    /**
+     * Nạp các authorizer theo định dạng &lt;authorizationId&gt;.cert / .key / .keyPassword.
+     */
+    public void loadFrom(Properties config) {
+        for (String name : new TreeSet<>(config.stringPropertyNames())) {
+            if (!name.endsWith(".cert") || name.startsWith("keystore.")) {
+                continue;
+            }
+            String authorizationId = name.substring(0, name.length() - ".cert".length());
+            String keyFilePath = config.getProperty(authorizationId + ".key");
+            if (keyFilePath == null) {
+                throw new IllegalArgumentException("Missing " + authorizationId + ".key in signer configuration");
+            }
+            register(authorizationId, config.getProperty(name), keyFilePath,
+                    config.getProperty(authorizationId + ".keyPassword", ""));
+        }
+        if (KeyStoreSignerProvider.isConfigured(config)) {
+            KeyStoreSignerProvider keyStoreProvider = new KeyStoreSignerProvider(this, config);
+            keyStoreProvider.loadAll();
+            try {
+                keyStoreProvider.startWatching();
+            } catch (IOException ex) {
+                LoggerUtil.warn("Cannot watch keystore files, hot reload disabled: {}", ex.getMessage());
+            }
+            keyStoreProviders.add(keyStoreProvider);
+        }
+    }
+
+    private static Properties readConfig() {
+        String externalConfig = System.getProperty(CONFIG_PROPERTY);
+        String configPath = externalConfig != null ? externalConfig : DEFAULT_CONFIG;
+        LoggerUtil.info("Loading signer configuration from: {}", configPath);
+        Properties config = new Properties();
+        try (InputStream configStream = openResource(configPath);
+             Reader reader = new InputStreamReader(configStream, StandardCharsets.UTF_8)) {
+            config.load(reader);
+            return config;
+        } catch (IOException ex) {
+            LoggerUtil.error("Failed to read signer configuration {}: {}", configPath, ex.getMessage());
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private static InputStream openResource(String path) throws IOException {
+        InputStream stream = SignerRegistry.class.getClassLoader().getResourceAsStream(path);
+        if (stream != null) {
+            return stream;
+        }
+        if (new File(path).isFile()) {
+            return new FileInputStream(path);
+        }
+        throw new IllegalArgumentException("Cannot find file at: " + path);
+    }
+
+    /**
+     * Load certificate từ file .cer sử dụng CertificateFactory.
+     */
+    private static X509Certificate loadCertificate(String certFilePath) {
+        try (InputStream certStream = openResource(certFilePath)) {
+            CertificateFactory cf = CertificateFactory.getInstance("X.509");
+            return (X509Certificate) cf.generateCertificate(certStream);
+        } catch (IllegalArgumentException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new RuntimeException("Failed to load certificate: " + certFilePath, ex);
+        }
+    }
+
+    /**
+     * Load private key từ file .key (hoặc .pem) sử dụng PEMParser của BouncyCastle.
+     */
+    private static PrivateKey loadPrivateKey(String keyFilePath, String keyPassword) {
+        try (InputStream keyStream = openResource(keyFilePath);
+             Reader reader = new InputStreamReader(keyStream);
+             PEMParser pemParser = new PEMParser(reader)) {
+            Object object = pemParser.readObject();
+            JcaPEMKeyConverter converter = new JcaPEMKeyConverter().setProvider("BC");
+            if (object instanceof PEMEncryptedKeyPair) {
+                PEMEncryptedKeyPair encKeyPair = (PEMEncryptedKeyPair) object;
+                PEMKeyPair keyPair = encKeyPair.decryptKeyPair(
+                        new JcePEMDecryptorProviderBuilder().build(keyPassword.toCharArray()));
+                return converter.getKeyPair(keyPair).getPrivate();
+            } else if (object instanceof PEMKeyPair) {
+                PEMKeyPair keyPair = (PEMKeyPair) object;
+                return converter.getKeyPair(keyPair).getPrivate();
+            } else if (object instanceof org.bouncycastle.asn1.pkcs.PrivateKeyInfo) {
+                return converter.getPrivateKey((org.bouncycastle.asn1.pkcs.PrivateKeyInfo) object);
+            } else {
+                throw new IllegalArgumentException("Unsupported private key format in file: " + keyFilePath);
+            }
+        } catch (IllegalArgumentException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new RuntimeException("Failed to load private key: " + keyFilePath, ex);
+        }
+    }
+}
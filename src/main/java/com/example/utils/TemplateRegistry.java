@@ -0,0 +1,215 @@
+package com.example.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry các request template trong requestTemplates/*.json (classpath): mỗi file được đọc, parse và kiểm tra
+ * cấu trúc một lần khi registry được tạo, sau đó giữ dạng cây Jackson không đổi.
+ * {@link #newRequest(String)} trả về request mới chỉ sao chép các node trên đường tới field được patch cho từng
+ * request (requestTrace, requestDateTime, trace number, authorizationString); các subtree còn lại (beneficiary,
+ * amount, ...) dùng chung với template nên caller không được sửa chúng.
+ */
+public class TemplateRegistry {
+    private static final String REQUEST_TEMPLATES_DIR = "requestTemplates";
+    private static final String SUFFIX = ".json";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static volatile TemplateRegistry defaultRegistry;
+
+    private final ConcurrentMap<String, ObjectNode> templates = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompiledTemplate> compiled = new ConcurrentHashMap<>();
+
+    public static TemplateRegistry getDefault() {
+        TemplateRegistry registry = defaultRegistry;
+        if (registry == null) {
+            synchronized (TemplateRegistry.class) {
+                registry = defaultRegistry;
+                if (registry == null) {
+                    registry = new TemplateRegistry();
+                    registry.loadAll();
+                    defaultRegistry = registry;
+                }
+            }
+        }
+        return registry;
+    }
+
+    public Set<String> keys() {
+        return Collections.unmodifiableSet(new TreeSet<>(templates.keySet()));
+    }
+
+    /**
+     * Request mới từ template; template chưa có trong registry (vd. classpath không liệt kê được) được nạp lần đầu dùng.
+     */
+    public ObjectNode newRequest(String key) {
+        return copyPatchablePaths(template(key));
+    }
+
+    /**
+     * Template đã compile thành đoạn byte cố định và slot ({@link CompiledTemplate}), compile lần đầu dùng rồi cache.
+     */
+    public CompiledTemplate compiled(String key) {
+        CompiledTemplate template = compiled.get(key);
+        if (template == null) {
+            template = compiled.computeIfAbsent(key, k -> CompiledTemplate.compile(k, template(k)));
+        }
+        return template;
+    }
+
+    private ObjectNode template(String key) {
+        ObjectNode template = templates.get(key);
+        if (template == null) {
+            template = templates.computeIfAbsent(key, TemplateRegistry::load);
+        }
+        return template;
+    }
+
+    private void loadAll() {
+        Set<String> keys = listKeys();
+        for (String key : keys) {
+            templates.put(key, load(key));
+        }
+        LoggerUtil.info("Loaded {} request templates: {}", templates.size(), keys());
+    }
+
+    private static ObjectNode load(String key) {
+        String filePath = REQUEST_TEMPLATES_DIR + "/" + key + SUFFIX;
+        try (InputStream inputStream = TemplateRegistry.class.getClassLoader().getResourceAsStream(filePath)) {
+            if (inputStream == null) {
+                throw new IllegalArgumentException("Cannot find template file: " + filePath);
+            }
+            JsonNode template = MAPPER.readTree(inputStream);
+            validate(filePath, template);
+            return (ObjectNode) template;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to parse template file: " + filePath, e);
+        }
+    }
+
+    /**
+     * Template phải có requestParameters.data với transaction (object) hoặc transactions (mảng object),
+     * và requestParameters.authorizations là mảng object có authorizationId.
+     */
+    private static void validate(String filePath, JsonNode template) {
+        if (!template.isObject()) {
+            throw new IllegalArgumentException("Template " + filePath + " is not a JSON object");
+        }
+        JsonNode data = template.path("requestParameters").path("data");
+        if (!data.isObject()) {
+            throw new IllegalArgumentException("Template " + filePath + " has no requestParameters.data object");
+        }
+        JsonNode transactions = data.path("transactions");
+        if (transactions.isArray()) {
+            for (JsonNode transaction : transactions) {
+                if (!transaction.isObject()) {
+                    throw new IllegalArgumentException("Template " + filePath + " has a non-object entry in transactions");
+                }
+            }
+        } else if (!data.path("transaction").isObject()) {
+            throw new IllegalArgumentException("Template " + filePath + " has neither data.transaction nor data.transactions");
+        }
+        JsonNode authorizations = template.path("requestParameters").path("authorizations");
+        if (!authorizations.isArray()) {
+            throw new IllegalArgumentException("Template " + filePath + " has no requestParameters.authorizations array");
+        }
+        for (JsonNode authorization : authorizations) {
+            if (!authorization.isObject() || !authorization.path("authorizationId").isTextual()) {
+                throw new IllegalArgumentException("Template " + filePath + " has an authorization without authorizationId");
+            }
+        }
+    }
+
+    /**
+     * Sao chép nông root, requestParameters, data, transaction/transactions (kể cả từng phần tử) và authorizations
+     * (kể cả từng phần tử); mọi node khác là tham chiếu tới template.
+     */
+    private static ObjectNode copyPatchablePaths(ObjectNode template) {
+        ObjectNode request = shallowCopy(template);
+        ObjectNode parameters = shallowCopy((ObjectNode) template.get("requestParameters"));
+        request.set("requestParameters", parameters);
+
+        ObjectNode data = shallowCopy((ObjectNode) parameters.get("data"));
+        parameters.set("data", data);
+        JsonNode transaction = data.get("transaction");
+        if (transaction != null && transaction.isObject()) {
+            data.set("transaction", shallowCopy((ObjectNode) transaction));
+        }
+        JsonNode transactions = data.get("transactions");
+        if (transactions != null && transactions.isArray()) {
+            data.set("transactions", copyElements((ArrayNode) transactions));
+        }
+        parameters.set("authorizations", copyElements((ArrayNode) parameters.get("authorizations")));
+        return request;
+    }
+
+    private static ArrayNode copyElements(ArrayNode array) {
+        ArrayNode copy = MAPPER.createArrayNode();
+        for (JsonNode element : array) {
+            copy.add(element.isObject() ? shallowCopy((ObjectNode) element) : element);
+        }
+        return copy;
+    }
+
+    private static ObjectNode shallowCopy(ObjectNode node) {
+        ObjectNode copy = MAPPER.createObjectNode();
+        copy.setAll(node);
+        return copy;
+    }
+
+    /**
+     * Tên các file *.json trong mọi thư mục requestTemplates trên classpath (thư mục hoặc jar).
+     */
+    private static Set<String> listKeys() {
+        Set<String> keys = new TreeSet<>();
+        try {
+            Enumeration<URL> directories = TemplateRegistry.class.getClassLoader().getResources(REQUEST_TEMPLATES_DIR);
+            while (directories.hasMoreElements()) {
+                URI uri = directories.nextElement().toURI();
+                if ("jar".equals(uri.getScheme())) {
+                    try (FileSystem jar = FileSystems.newFileSystem(uri, Collections.emptyMap())) {
+                        collectKeys(jar.getPath(REQUEST_TEMPLATES_DIR), keys);
+                    } catch (FileSystemAlreadyExistsException e) {
+                        collectKeys(FileSystems.getFileSystem(uri).getPath(REQUEST_TEMPLATES_DIR), keys);
+                    }
+                } else if ("file".equals(uri.getScheme())) {
+                    collectKeys(Paths.get(uri), keys);
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
+            LoggerUtil.warn("Cannot list {} on the classpath, templates will be loaded on first use: {}",
+                    REQUEST_TEMPLATES_DIR, e.getMessage());
+        }
+        return keys;
+    }
+
+    private static void collectKeys(Path directory, Set<String> keys) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                keys.add(name.substring(0, name.length() - SUFFIX.length()));
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sinh transactionTraceNumber/bulkTraceNumber dạng prefix + 10 chữ số: 2 chữ số node rồi 8 chữ số sequence.
+ * Fast path chỉ là một AtomicLong.getAndIncrement; sequence được cấp theo block (trace.blockSize, mặc định 10000)
+ * và giới hạn trên của block (high-water mark) được ghi xuống file trước khi dùng, nên sau khi restart
+ * (kể cả khi JVM bị kill) sequence tiếp tục từ sau block đã cấp, không lặp lại số cũ.
+ * Node lấy từ trace.node (0-99); nếu không đặt thì quét từ một node ngẫu nhiên và lấy node đầu tiên chưa bị
+ * JVM khác giữ trên máy này. Mỗi node được giữ bằng file lock tới khi {@link #close()} (generator mặc định giữ
+ * suốt vòng đời JVM) nên hai JVM không thể dùng chung node.
+ * Node chưa có trạng thái (container CI mới, workspace mới) bắt đầu từ một block ngẫu nhiên trong nửa đầu dải
+ * sequence thay vì 0, để không phát lại các số mà sandbox đã nhận từ những lần chạy trước trên máy khác.
+ * Muốn bảo đảm tuyệt đối giữa nhiều máy thì mỗi máy đặt trace.node khác nhau và giữ nguyên trace.stateDir.
+ * File trạng thái nằm trong trace.stateDir (mặc định ~/.api-tests/trace).
+ */
+public class TraceNumberGenerator implements AutoCloseable {
+    public static final String PREFIX_INSIDE = "inside";
+    public static final String PREFIX_IBFT = "ibft";
+    public static final String PREFIX_CITAD = "citad";
+    public static final String PREFIX_BULK = "pika";
+    public static final String PREFIX_UNKNOWN = "unknown";
+
+    private static final int NODE_COUNT = 100;
+    static final long MAX_SEQUENCE = 99_999_999L;
+    private static final Random SEED = new SecureRandom();
+
+    private static volatile TraceNumberGenerator defaultGenerator;
+
+    private final int node;
+    private final long blockSize;
+    private final FileChannel state;
+    private final AtomicLong next;
+    private volatile long reservedUntil;
+
+    private TraceNumberGenerator(int node, FileChannel state, long highWaterMark, long blockSize) {
+        this.node = node;
+        this.state = state;
+        this.blockSize = blockSize;
+        this.next = new AtomicLong(highWaterMark);
+        this.reservedUntil = highWaterMark;
+    }
+
+    public static TraceNumberGenerator getDefault() {
+        TraceNumberGenerator generator = defaultGenerator;
+        if (generator == null) {
+            synchronized (TraceNumberGenerator.class) {
+                generator = defaultGenerator;
+                if (generator == null) {
+                    String stateDir = System.getProperty("trace.stateDir",
+                            Paths.get(System.getProperty("user.home"), ".api-tests", "trace").toString());
+                    String node = System.getProperty("trace.node");
+                    generator = open(Paths.get(stateDir), node == null || node.trim().isEmpty() ? -1 : Integer.parseInt(node.trim()),
+                            Long.getLong("trace.blockSize", 10_000));
+                    defaultGenerator = generator;
+                }
+            }
+        }
+        return generator;
+    }
+
+    /**
+     * Mở generator cho node (0-99), node &lt; 0 là tự chọn node trống trong stateDir bắt đầu từ một node ngẫu nhiên.
+     */
+    public static TraceNumberGenerator open(Path stateDir, int node, long blockSize) {
+        if (node >= NODE_COUNT) {
+            throw new IllegalArgumentException("trace.node must be between 0 and " + (NODE_COUNT - 1) + ": " + node);
+        }
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("trace.blockSize must be positive: " + blockSize);
+        }
+        try {
+            Files.createDirectories(stateDir);
+            int first = node >= 0 ? node : SEED.nextInt(NODE_COUNT);
+            for (int i = 0; i < NODE_COUNT; i++) {
+                int candidate = (first + i) % NODE_COUNT;
+                FileChannel channel = FileChannel.open(stateDir.resolve(String.format(Locale.ROOT, "node-%02d.hwm", candidate)),
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                if (tryLock(channel)) {
+                    long highWaterMark = readHighWaterMark(channel);
+                    boolean fresh = highWaterMark < 0;
+                    if (fresh) {
+                        highWaterMark = randomStart(blockSize);
+                    }
+                    LoggerUtil.info("Trace numbers use node {} starting at sequence {} ({}, {})", candidate, highWaterMark,
+                            stateDir, fresh ? "new state, random start" : "continuing persisted state");
+                    return new TraceNumberGenerator(candidate, channel, highWaterMark, blockSize);
+                }
+                channel.close();
+                if (node >= 0) {
+                    throw new IllegalStateException("trace.node " + node + " is already in use by another process");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open trace number state in " + stateDir, e);
+        }
+        throw new IllegalStateException("All " + NODE_COUNT + " trace nodes in " + stateDir + " are in use");
+    }
+
+    public int getNode() {
+        return node;
+    }
+
+    /**
+     * Giải phóng node cho JVM/generator khác; high-water mark đã ghi vẫn giữ nên lần mở sau tiếp tục sau nó.
+     */
+    @Override
+    public void close() {
+        try {
+            state.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close trace number state for node " + node, e);
+        }
+    }
+
+    /**
+     * prefix + 2 chữ số node + 8 chữ số sequence, duy nhất trong mọi lần gọi trên mọi JVM có node khác nhau.
+     */
+    public String next(String prefix) {
+        long sequence = next.getAndIncrement();
+        if (sequence >= reservedUntil) {
+            reserve(sequence);
+        }
+        char[] digits = new char[prefix.length() + 10];
+        prefix.getChars(0, prefix.length(), digits, 0);
+        int position = digits.length;
+        for (int i = 0; i < 8; i++) {
+            digits[--position] = (char) ('0' + sequence % 10);
+            sequence /= 10;
+        }
+        digits[--position] = (char) ('0' + node % 10);
+        digits[--position] = (char) ('0' + node / 10);
+        return new String(digits);
+    }
+
+    public String nextBulk() {
+        return next(PREFIX_BULK);
+    }
+
+    /**
+     * Trace number cho giao dịch theo transactionType (INSIDEBANK, IBFT, CITAD).
+     */
+    public String nextTransaction(String transactionType) {
+        return next(prefixFor(transactionType));
+    }
+
+    public static String prefixFor(String transactionType) {
+        switch (transactionType == null ? "" : transactionType.toLowerCase(Locale.ROOT)) {
+            case "insidebank":
+                return PREFIX_INSIDE;
+            case "ibft":
+                return PREFIX_IBFT;
+            case "citad":
+                return PREFIX_CITAD;
+            default:
+                LoggerUtil.warn("Unknown transactionType: {}, using default prefix '{}'", transactionType, PREFIX_UNKNOWN);
+                return PREFIX_UNKNOWN;
+        }
+    }
+
+    /**
+     * Slow path khi vượt block đã cấp: ghi high-water mark mới xuống file trước khi trả sequence ra ngoài.
+     */
+    private synchronized void reserve(long sequence) {
+        if (sequence < reservedUntil) {
+            return;
+        }
+        if (sequence > MAX_SEQUENCE) {
+            throw new IllegalStateException("Trace number sequence for node " + node + " is exhausted, use another trace.node");
+        }
+        long newLimit = Math.min(MAX_SEQUENCE + 1, (sequence / blockSize + 1) * blockSize);
+        try {
+            // Độ dài cố định và ghi đè tại chỗ (không truncate) để file không bao giờ rỗng giữa chừng
+            ByteBuffer content = ByteBuffer.wrap(String.format(Locale.ROOT, "%019d\n", newLimit)
+                    .getBytes(StandardCharsets.US_ASCII));
+            while (content.hasRemaining()) {
+                state.write(content, content.position());
+            }
+            state.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot persist trace number high-water mark for node " + node, e);
+        }
+        reservedUntil = newLimit;
+    }
+
+    private static boolean tryLock(FileChannel channel) throws IOException {
+        try {
+            FileLock lock = channel.tryLock();
+            return lock != null;
+        } catch (OverlappingFileLockException e) {
+            // Node đã được mở trong chính JVM này
+            return false;
+        }
+    }
+
+    /**
+     * Đầu một block ngẫu nhiên trong nửa đầu dải sequence, nên luôn còn ít nhất nửa dải trước khi cạn.
+     */
+    private static long randomStart(long blockSize) {
+        long blocks = Math.max(1, (MAX_SEQUENCE + 1) / 2 / blockSize);
+        return (long) (SEED.nextDouble() * blocks) * blockSize;
+    }
+
+    /**
+     * High-water mark đã ghi, -1 khi file chưa có trạng thái.
+     */
+    private static long readHighWaterMark(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(32);
+        channel.read(buffer, 0);
+        String value = new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII).trim();
+        if (value.isEmpty()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Corrupt trace number high-water mark: " + value, e);
+        }
+    }
+}
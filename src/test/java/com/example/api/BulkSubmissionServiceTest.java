@@ -0,0 +1,124 @@
+package com.example.api;
+
+import com.example.config.APIConfig;
+import com.example.stub.PaymentSandboxStub;
+import com.example.stub.StubBehavior;
+import com.example.utils.TemplateRegistry;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+
+/**
+ * Chạy với stub local riêng của class (không dùng {@code APIConfig} dùng chung), nên chạy được trong mọi lần mvn test.
+ */
+public class BulkSubmissionServiceTest {
+    private static PaymentSandboxStub stub;
+    private static TokenManager tokens;
+
+    @BeforeAll
+    static void startStub() {
+        stub = PaymentSandboxStub.start(0, StubBehavior.fromSystemProperties()
+                .withLatency(0, 0).withErrorRate(0).withRejectRate(0));
+        tokens = new TokenManager(() -> TokenAPI.requestAccessToken(stub.getBaseUrl() + APIConfig.TOKEN_PATH));
+    }
+
+    @AfterAll
+    static void stopStub() {
+        tokens.close();
+        stub.close();
+    }
+
+    @Test
+    void splitsTransactionsIntoChunksWithTheirOwnBulkTraceNumbers() throws Exception {
+        List<String> traceNumbers = Arrays.asList(uniqueBulk(), uniqueBulk(), uniqueBulk());
+        Iterator<String> supplied = traceNumbers.iterator();
+        BulkSubmissionService service = service(3, 2, supplied::next, tokens);
+
+        BulkSubmissionService.Result result = service.submit(bulkRequest(7));
+
+        assertThat(result.isSuccessful(), equalTo(true));
+        assertThat(result.getBulkTraceNumbers(), equalTo(traceNumbers));
+        assertThat(counts(result), contains(3, 3, 1));
+        assertThat(result.getAcceptedTransactions(), equalTo(7));
+        for (BulkSubmissionService.ChunkResult chunk : result.getChunks()) {
+            assertThat(chunk.getStatusCode(), equalTo(200));
+            assertThat(chunk.getBulkStatus(), equalTo("ORIG"));
+        }
+    }
+
+    @Test
+    void failedChunkDoesNotStopTheOthers() throws Exception {
+        String duplicate = uniqueBulk();
+        String last = uniqueBulk();
+        Iterator<String> supplied = Arrays.asList(duplicate, duplicate, last).iterator();
+        // Một chunk đồng thời để chunk 0 chắc chắn tới stub trước chunk 1 trùng bulkTraceNumber
+        BulkSubmissionService service = service(2, 1, supplied::next, tokens);
+
+        BulkSubmissionService.Result result = service.submit(bulkRequest(5));
+
+        assertThat(result.isSuccessful(), equalTo(false));
+        assertThat(result.getFailedChunks().size(), equalTo(1));
+        BulkSubmissionService.ChunkResult failed = result.getFailedChunks().get(0);
+        assertThat(failed.getIndex(), equalTo(1));
+        assertThat(failed.getStatusCode(), equalTo(409));
+        assertThat(failed.getBulkStatus(), nullValue());
+        assertThat(result.getChunks().get(2).isAccepted(), equalTo(true));
+        assertThat(result.getAcceptedTransactions(), equalTo(3));
+    }
+
+    @Test
+    void tokenFailureIsReportedPerChunk() throws Exception {
+        BulkSubmissionService.Result result;
+        try (TokenManager unavailable = new TokenManager(() -> {
+            throw new IllegalStateException("token endpoint unavailable");
+        })) {
+            result = service(2, 2, BulkSubmissionServiceTest::uniqueBulk, unavailable).submit(bulkRequest(3));
+        }
+
+        assertThat(result.getChunks().size(), equalTo(2));
+        assertThat(result.getFailedChunks().size(), equalTo(2));
+        assertThat(result.getFailedChunks().get(0).getFailure(), startsWith("java.lang.IllegalStateException"));
+        assertThat(result.getAcceptedTransactions(), equalTo(0));
+    }
+
+    private static BulkSubmissionService service(int chunkSize, int maxConcurrency, Supplier<String> bulkTraceNumbers,
+                                                 TokenManager tokenManager) {
+        String endpoint = stub.getBaseUrl() + APIConfig.BULK_TRANSACTION_PATH;
+        return new BulkSubmissionService(chunkSize, maxConcurrency, bulkTraceNumbers, tokenManager,
+                (token, request) -> AsyncApiClient.postJson(endpoint, token, request.toString()));
+    }
+
+    private static ObjectNode bulkRequest(int transactionCount) {
+        ObjectNode request = TemplateRegistry.getDefault().newRequest("bulk-transaction-template");
+        ObjectNode data = (ObjectNode) request.path("requestParameters").path("data");
+        ObjectNode prototype = (ObjectNode) data.path("transactions").get(0);
+        ArrayNode transactions = data.putArray("transactions");
+        for (int i = 0; i < transactionCount; i++) {
+            transactions.add(prototype.deepCopy().put("transactionTraceNumber", "inside" + UUID.randomUUID()));
+        }
+        return request;
+    }
+
+    private static List<Integer> counts(BulkSubmissionService.Result result) {
+        return result.getChunks().stream().map(BulkSubmissionService.ChunkResult::getTransactionCount).collect(Collectors.toList());
+    }
+
+    private static String uniqueBulk() {
+        return "pika" + UUID.randomUUID();
+    }
+}
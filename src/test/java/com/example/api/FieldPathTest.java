@@ -0,0 +1,92 @@
+package com.example.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FieldPathTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    void scalarField() throws Exception {
+        JsonNode root = json("{'requestTrace':'t-1','responseData':{'bulkTransaction':{'bulkStatus':'ORIG','count':3}}}");
+        assertThat(text("requestTrace", root), equalTo("t-1"));
+        assertThat(text("responseData.bulkTransaction.bulkStatus", root), equalTo("ORIG"));
+        assertThat(text("responseData.bulkTransaction.count", root), equalTo("3"));
+        assertThat(text("responseData.bulkTransaction", root), equalTo("{\"bulkStatus\":\"ORIG\",\"count\":3}"));
+    }
+
+    @Test
+    void fieldOnArrayCollectsEachElement() throws Exception {
+        JsonNode root = json("{'responseData':{'bulkTransactions':[{'bulkStatus':'COMP'},{},{'bulkStatus':'RJCT'}]}}");
+        JsonNode statuses = FieldPath.compile("responseData.bulkTransactions.bulkStatus").evaluate(root);
+        assertThat(statuses, equalTo(json("['COMP',null,'RJCT']")));
+        assertThat(text("responseData.bulkTransactions.bulkStatus", root), equalTo("COMP"));
+        assertThat(text("responseData.bulkTransactions.bulkStatus[1]", root), nullValue());
+        assertThat(text("responseData.bulkTransactions.bulkStatus[2]", root), equalTo("RJCT"));
+    }
+
+    @Test
+    void indexSelectsElement() throws Exception {
+        JsonNode root = json("{'responseData':{'transactions':[{'transactionTraceNumber':'a'},{'transactionTraceNumber':'b'}]}}");
+        assertThat(text("responseData.transactions[0].transactionTraceNumber", root), equalTo("a"));
+        assertThat(text("responseData.transactions[1].transactionTraceNumber", root), equalTo("b"));
+        assertThat(text("responseData.transactions[2].transactionTraceNumber", root), nullValue());
+        assertThat(text("responseData.transactions[0][0]", root), nullValue());
+    }
+
+    @Test
+    void negativeIndexCountsFromTheEnd() throws Exception {
+        JsonNode root = json("{'items':['x','y','z']}");
+        assertThat(text("items[-1]", root), equalTo("z"));
+        assertThat(text("items[-3]", root), equalTo("x"));
+        assertThat(text("items[-4]", root), nullValue());
+    }
+
+    @Test
+    void indexAfterCollectedFieldDoesNotDependOnMatchCount() throws Exception {
+        String expression = "responseData.bulkTransactions.items[0]";
+        JsonNode oneBulk = json("{'responseData':{'bulkTransactions':[{'items':['a1','a2']}]}}");
+        JsonNode twoBulks = json("{'responseData':{'bulkTransactions':[{'items':['a1','a2']},{'items':['b1']}]}}");
+        assertThat(FieldPath.compile(expression).evaluate(oneBulk), equalTo(json("['a1','a2']")));
+        assertThat(FieldPath.compile(expression).evaluate(twoBulks), equalTo(json("['a1','a2']")));
+    }
+
+    @Test
+    void missingFieldIsNull() throws Exception {
+        JsonNode root = json("{'responseData':{'transactions':[],'status':null}}");
+        assertThat(text("responseData.unknown", root), nullValue());
+        assertThat(text("responseData.unknown.deeper[0]", root), nullValue());
+        assertThat(text("responseData.transactions", root), nullValue());
+        assertThat(text("responseData.status", root), nullValue());
+        assertThat(FieldPath.compile("responseData.unknown").evaluate(root).isMissingNode(), equalTo(true));
+    }
+
+    @Test
+    void compiledExpressionsAreCached() {
+        assertThat(FieldPath.compile("a.b[0]"), sameInstance(FieldPath.compile("a.b[0]")));
+    }
+
+    @Test
+    void invalidExpressionsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> FieldPath.compile(" "));
+        assertThrows(IllegalArgumentException.class, () -> FieldPath.compile("a..b"));
+        assertThrows(IllegalArgumentException.class, () -> FieldPath.compile("a[0"));
+        assertThrows(IllegalArgumentException.class, () -> FieldPath.compile("a[x]"));
+        assertThrows(IllegalArgumentException.class, () -> FieldPath.compile("a[0]b"));
+    }
+
+    private static String text(String expression, JsonNode root) {
+        return FieldPath.compile(expression).firstText(root);
+    }
+
+    private static JsonNode json(String singleQuoted) throws Exception {
+        return MAPPER.readTree(singleQuoted.replace('\'', '"'));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.api;
+
+import com.example.tests.utils.TestUtils;
+import io.qameta.allure.Allure;
+import io.qameta.allure.model.Attachment;
+import io.qameta.allure.model.StepResult;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class PayloadCaptureTest {
+
+    @BeforeEach
+    void requireAllure() {
+        // Attachment chỉ được ghi khi Allure listener đang theo dõi test hiện tại
+        assumeTrue(Allure.getLifecycle().getCurrentTestCase().isPresent(), "Allure lifecycle is not active");
+    }
+
+    @Test
+    void syncCallThroughStepAttachesOnce() {
+        Response response = jsonResponse("{\"responseCode\":\"00\"}");
+        PayloadCapture.Exchange exchange = PayloadCapture.start("Payment Order", "POST", "http://localhost/payment")
+                .requestBody("{\"requestTrace\":\"T1\"}");
+
+        exchange.complete(response);
+        List<String> afterWrapper = attachmentNames();
+        assertThat(afterWrapper, is(not(empty())));
+
+        TestUtils.callApiAndLogResponse("Step 1", "{\"requestTrace\":\"T1\"}", response);
+        TestUtils.callApiAndLogResponse("Step 1 again", "{\"requestTrace\":\"T1\"}", response);
+
+        assertThat(attachmentNames(), equalTo(afterWrapper));
+    }
+
+    @Test
+    void responseWithoutWrapperIsAttachedByStep() {
+        Response response = jsonResponse("{}");
+        int before = attachmentNames().size();
+
+        TestUtils.callApiAndLogResponse("Step", "None (GET request)", response);
+        int afterFirst = attachmentNames().size();
+        PayloadCapture.forResponse(response).publish("");
+
+        assertThat(afterFirst, greaterThan(before));
+        assertThat(attachmentNames().size(), equalTo(afterFirst));
+    }
+
+    private static Response jsonResponse(String body) {
+        return new ResponseBuilder()
+                .setStatusCode(200)
+                .setContentType("application/json")
+                .setBody(body)
+                .build();
+    }
+
+    /**
+     * Tên mọi attachment của test hiện tại, kể cả trong các step.
+     */
+    private static List<String> attachmentNames() {
+        List<Attachment> attachments = new ArrayList<>();
+        Allure.getLifecycle().updateTestCase(result -> {
+            attachments.addAll(result.getAttachments());
+            collect(result.getSteps(), attachments);
+        });
+        return attachments.stream().map(Attachment::getName).collect(Collectors.toList());
+    }
+
+    private static void collect(List<StepResult> steps, List<Attachment> attachments) {
+        for (StepResult step : steps) {
+            attachments.addAll(step.getAttachments());
+            collect(step.getSteps(), attachments);
+        }
+    }
+}
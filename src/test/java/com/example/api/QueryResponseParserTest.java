@@ -0,0 +1,249 @@
+package com.example.api;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class QueryResponseParserTest {
+
+    @Test
+    void readsEnvelopeAndTransactions() {
+        Response response = response(200, "{'requestTrace':'rt-1',"
+                + "'responseStatus':{'responseCode':'00000000','responseMessage':'Success','details':{'x':1}},"
+                + "'responseData':{'transactions':["
+                + "{'transactionTraceNumber':'t1','transactionType':'NAPAS','status':'COMP'},"
+                + "{'transactionTraceNumber':'t2','transactionType':'CITAD','status':'ORIG'}]}}");
+
+        QueryResponseParser.QueryResult<QueryResponseParser.Transaction> result =
+                QueryResponseParser.parseTransactionQuery(response);
+
+        assertThat(result.getStatusCode(), equalTo(200));
+        assertThat(result.getRequestTrace(), equalTo("rt-1"));
+        assertThat(result.getResponseCode(), equalTo("00000000"));
+        assertThat(result.getResponseMessage(), equalTo("Success"));
+        assertThat(traceNumbers(result.getRecords()), contains("t1", "t2"));
+        assertThat(result.first().getTransactionType(), equalTo("NAPAS"));
+        assertThat(result.first().getStatus(), equalTo("COMP"));
+    }
+
+    @Test
+    void responseDataWithoutArrayHasNoRecords() {
+        Response response = response(404, "{'requestTrace':'rt-2',"
+                + "'responseStatus':{'responseCode':'40400000','responseMessage':'Not found'},"
+                + "'responseData':{'bulkTransactions':[{'bulkTraceNumber':'b1'}],'transactions':null}}");
+
+        QueryResponseParser.QueryResult<QueryResponseParser.Transaction> result =
+                QueryResponseParser.parseTransactionQuery(response);
+
+        assertThat(result.getStatusCode(), equalTo(404));
+        assertThat(result.getResponseCode(), equalTo("40400000"));
+        assertThat(result.isEmpty(), equalTo(true));
+        assertThat(result.getRecords(), empty());
+        assertThat(result.first(), nullValue());
+    }
+
+    @Test
+    void amountIsReadFromScalarOrObject() {
+        Response response = response(200, "{'responseData':{'transactions':["
+                + "{'transactionTraceNumber':'t1','amount':1500},"
+                + "{'transactionTraceNumber':'t2','amount':{'amount':'2000','sourceCurrency':'VND','rate':{'value':1}}}]}}");
+
+        List<QueryResponseParser.Transaction> records = QueryResponseParser.parseTransactionQuery(response).getRecords();
+
+        assertThat(records.get(0).getAmount(), equalTo("1500"));
+        assertThat(records.get(0).getCurrency(), nullValue());
+        assertThat(records.get(1).getAmount(), equalTo("2000"));
+        assertThat(records.get(1).getCurrency(), equalTo("VND"));
+    }
+
+    @Test
+    void unknownAndNestedFieldsAreSkipped() {
+        Response response = response(200, "{'extra':{'responseData':{'transactions':[{'transactionTraceNumber':'wrong'}]}},"
+                + "'responseData':{'meta':[{'status':'WRONG'}],'transactions':[1,'x',"
+                + "{'audit':{'status':'WRONG','transactionTraceNumber':'wrong'},'tags':[{'status':'WRONG'}],"
+                + "'status':'COMP','transactionTraceNumber':'t1'},[{'transactionTraceNumber':'wrong'}]]},"
+                + "'requestTrace':'rt-3'}");
+
+        QueryResponseParser.QueryResult<QueryResponseParser.Transaction> result =
+                QueryResponseParser.parseTransactionQuery(response);
+
+        assertThat(traceNumbers(result.getRecords()), contains("t1"));
+        assertThat(result.first().getStatus(), equalTo("COMP"));
+        assertThat(result.getRequestTrace(), equalTo("rt-3"));
+    }
+
+    @Test
+    void transactionCountFallsBackToListSize() {
+        Response response = response(200, "{'responseData':{'bulkTransactions':["
+                + "{'bulkTraceNumber':'b1','bulkStatus':'COMP','transactionCount':10,'transactions':[{'transactionTraceNumber':'t1'}]},"
+                + "{'bulkTraceNumber':'b2','bulkStatus':'ORIG','transactions':[{'transactionTraceNumber':'t2'},{'transactionTraceNumber':'t3'}]},"
+                + "{'bulkTraceNumber':'b3','transactionCount':'n/a'}]}}");
+
+        List<QueryResponseParser.BulkTransaction> bulks = QueryResponseParser.parseBulkQuery(response).getRecords();
+
+        assertThat(bulks.get(0).getTransactionCount(), equalTo(10));
+        assertThat(bulks.get(1).getTransactionCount(), equalTo(2));
+        assertThat(traceNumbers(bulks.get(1).getTransactions()), contains("t2", "t3"));
+        assertThat(bulks.get(2).getTransactionCount(), equalTo(0));
+        assertThat(bulks.get(2).getBulkStatus(), nullValue());
+    }
+
+    @Test
+    void nonObjectBodyIsRejected() {
+        assertThrows(IllegalStateException.class, () -> QueryResponseParser.parseTransactionQuery(response(200, "[]")));
+    }
+
+    @Test
+    void firstStatusOfSuccessfulResponse() {
+        assertThat(QueryResponseParser.firstTransactionStatus(response(200,
+                "{'responseData':{'transactions':[{'status':'COMP'},{'status':'ORIG'}]}}")), equalTo("COMP"));
+        assertThat(QueryResponseParser.firstBulkStatus(response(200,
+                "{'responseData':{'bulkTransactions':[{'bulkStatus':'PDNG'}]}}")), equalTo("PDNG"));
+        assertThat(QueryResponseParser.firstTransactionStatus(response(200, "{'responseData':{'transactions':[]}}")), nullValue());
+    }
+
+    @Test
+    void firstStatusIsNullForErrorOrMalformedBody() {
+        String body = "{'responseData':{'transactions':[{'status':'COMP'}]}}";
+        assertThat(QueryResponseParser.firstTransactionStatus(response(500, body)), nullValue());
+        assertThat(QueryResponseParser.firstBulkStatus(response(401, "{'responseData':{'bulkTransactions':[{'bulkStatus':'COMP'}]}}")), nullValue());
+        assertThat(QueryResponseParser.firstTransactionStatus(response(200, "{'responseData':{'transactions':[{'status':")), nullValue());
+        assertThat(QueryResponseParser.firstBulkStatus(response(200, "<html>Bad Gateway</html>")), nullValue());
+    }
+
+    @Test
+    void transactionIteratorReadsEachElement() throws Exception {
+        TrackingStream body = stream("{'requestTrace':'rt','responseData':{'transactions':["
+                + "{'transactionTraceNumber':'t1'},{'transactionTraceNumber':'t2'},{'transactionTraceNumber':'t3'}]}}");
+
+        List<String> traceNumbers = new ArrayList<>();
+        try (QueryResponseParser.RecordIterator<QueryResponseParser.Transaction> records = QueryResponseParser.transactions(body)) {
+            while (records.hasNext()) {
+                traceNumbers.add(records.next().getTransactionTraceNumber());
+            }
+            assertThrows(NoSuchElementException.class, records::next);
+        }
+
+        assertThat(traceNumbers, contains("t1", "t2", "t3"));
+        assertThat(body.closed, equalTo(true));
+    }
+
+    @Test
+    void bulkIteratorReadsNestedTransactions() throws Exception {
+        TrackingStream body = stream("{'responseData':{'bulkTransactions':["
+                + "{'bulkTraceNumber':'b1','transactions':[{'transactionTraceNumber':'t1'}]},"
+                + "{'bulkTraceNumber':'b2','bulkStatus':'COMP','transactions':[]}]}}");
+
+        try (QueryResponseParser.RecordIterator<QueryResponseParser.BulkTransaction> bulks = QueryResponseParser.bulkTransactions(body)) {
+            QueryResponseParser.BulkTransaction first = bulks.next();
+            assertThat(first.getBulkTraceNumber(), equalTo("b1"));
+            assertThat(traceNumbers(first.getTransactions()), contains("t1"));
+            QueryResponseParser.BulkTransaction second = bulks.next();
+            assertThat(second.getBulkStatus(), equalTo("COMP"));
+            assertThat(second.getTransactionCount(), equalTo(0));
+            assertThat(bulks.hasNext(), equalTo(false));
+        }
+    }
+
+    @Test
+    void iteratorWithoutArrayIsEmptyAndClosed() throws Exception {
+        TrackingStream body = stream("{'responseData':{'transactions':{'transactionTraceNumber':'t1'}}}");
+
+        QueryResponseParser.RecordIterator<QueryResponseParser.Transaction> records = QueryResponseParser.transactions(body);
+
+        assertThat(records.hasNext(), equalTo(false));
+        assertThat(body.closed, equalTo(true));
+    }
+
+    @Test
+    void earlyCloseStopsReadingAndClosesParser() throws Exception {
+        StringBuilder json = new StringBuilder("{'responseData':{'transactions':[");
+        for (int i = 0; i < 20_000; i++) {
+            json.append(i == 0 ? "" : ",").append("{'transactionTraceNumber':'t").append(i).append("','status':'COMP'}");
+        }
+        TrackingStream body = stream(json.append("]}}").toString());
+
+        try (QueryResponseParser.RecordIterator<QueryResponseParser.Transaction> records = QueryResponseParser.transactions(body)) {
+            assertThat(records.next().getTransactionTraceNumber(), equalTo("t0"));
+            assertThat(records.next().getTransactionTraceNumber(), equalTo("t1"));
+        }
+
+        assertThat(body.closed, equalTo(true));
+        assertThat(body.bytesRead, lessThan(body.size / 10));
+    }
+
+    private static List<String> traceNumbers(List<QueryResponseParser.Transaction> transactions) {
+        List<String> traceNumbers = new ArrayList<>();
+        for (QueryResponseParser.Transaction transaction : transactions) {
+            traceNumbers.add(transaction.getTransactionTraceNumber());
+        }
+        return traceNumbers;
+    }
+
+    private static Response response(int statusCode, String body) {
+        return new ResponseBuilder()
+                .setStatusCode(statusCode)
+                .setContentType("application/json")
+                .setBody(body.replace('\'', '"'))
+                .build();
+    }
+
+    private static TrackingStream stream(String json) {
+        return new TrackingStream(json.replace('\'', '"').getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Đếm số byte parser đã đọc và ghi nhận khi stream bị đóng.
+     */
+    private static class TrackingStream extends InputStream {
+        private final ByteArrayInputStream delegate;
+        private final int size;
+        private int bytesRead;
+        private boolean closed;
+
+        TrackingStream(byte[] bytes) {
+            this.delegate = new ByteArrayInputStream(bytes);
+            this.size = bytes.length;
+        }
+
+        @Override
+        public int read() {
+            int value = delegate.read();
+            if (value >= 0) {
+                bytesRead++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            int count = delegate.read(buffer, offset, length);
+            if (count > 0) {
+                bytesRead += count;
+            }
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.load;
+
+import com.example.stub.PaymentSandboxStub;
+import com.example.tests.handlers.ApiTestHandler;
+import com.example.tests.handlers.BulkTransactionHandler;
+import com.example.tests.handlers.CreateAndQueryBulkHandler;
+import com.example.tests.handlers.CreateAndQueryHandler;
+import com.example.tests.handlers.GetBulkTransactionHandler;
+import com.example.tests.handlers.GetTransactionHandler;
+import com.example.tests.handlers.PostPaymentHandler;
+import com.example.tests.utils.TestUtils;
+import com.example.utils.FileUtil;
+import com.example.utils.LoggerUtil;
+import com.example.utils.TemplateRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.restassured.response.Response;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Chạy tải bằng các kịch bản trong all-payment-tests.json, dùng lại handler của test chức năng.
+ * <pre>
+ * mvn -Pload -DskipTests verify -Dload.model=closed -Dload.users=10 -Dload.durationSeconds=60
+ * mvn -Pload -DskipTests verify -Dload.model=open -Dload.rate=20 -Dload.iterations=1000
+ * mvn -Pload -DskipTests verify -Dapi.stub=true -Dload.model=closed -Dload.users=10   (stub local, không cần sandbox)
+ * mvn -Pload -DskipTests verify -Dload.model=replay -Dload.replayFile=target/traffic.jsonl -Dload.replaySpeed=2
+ * </pre>
+ * Tham số: load.model (open | closed | replay), load.rate (lượt/giây, open), load.users (closed), load.durationSeconds
+ * hoặc load.iterations, load.maxInFlight (open), load.thinkTimeMillis (closed), load.scenarios, load.apiTypes,
+ * load.replayFile và load.replaySpeed (replay file capture của TrafficRecorder, ghi bằng -Drecord.file).
+ * Độ trễ của open model tính từ thời điểm lượt đến theo lịch, nên request bị trễ do hệ thống chậm vẫn được tính.
+ */
+public class LoadRunner {
+    private final List<Map<String, Object>> scenarios;
+    private final Map<String, ApiTestHandler> handlers = new HashMap<>();
+    private final LoadStats stats = new LoadStats();
+    private final AtomicLong nextScenario = new AtomicLong();
+
+    public LoadRunner(List<Map<String, Object>> scenarios) {
+        if (scenarios.isEmpty()) {
+            throw new IllegalArgumentException("No scenarios to run");
+        }
+        this.scenarios = scenarios;
+        ObjectMapper mapper = new ObjectMapper();
+        handlers.put("POST_PAYMENT", new PostPaymentHandler());
+        handlers.put("CREATE_AND_QUERY", new CreateAndQueryHandler(mapper));
+        handlers.put("CREATE_AND_QUERY_BULK", new CreateAndQueryBulkHandler(mapper));
+        handlers.put("BULK_TRANSACTION", new BulkTransactionHandler(mapper));
+        handlers.put("GET_TRANSACTION", new GetTransactionHandler());
+        handlers.put("GET_BULK_TRANSACTION", new GetBulkTransactionHandler());
+        for (Map<String, Object> scenario : scenarios) {
+            if (!handlers.containsKey(scenario.get("apiType"))) {
+                throw new IllegalArgumentException("No handler for apiType " + scenario.get("apiType")
+                        + " in scenario " + scenario.get("testCaseId"));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String model = System.getProperty("load.model", "closed");
+        long durationSeconds = Long.getLong("load.durationSeconds", 0);
+        long iterations = Long.getLong("load.iterations", 0);
+        if (durationSeconds <= 0 && iterations <= 0 && !"replay".equals(model)) {
+            durationSeconds = 60;
+        }
+        PaymentSandboxStub.startIfRequested();
+        TemplateRegistry.getDefault();
+
+        long start = System.nanoTime();
+        long deadline = durationSeconds > 0 ? start + TimeUnit.SECONDS.toNanos(durationSeconds) : Long.MAX_VALUE;
+        long limit = iterations > 0 ? iterations : Long.MAX_VALUE;
+        if ("replay".equals(model)) {
+            String replayFile = System.getProperty("load.replayFile");
+            if (replayFile == null || replayFile.trim().isEmpty()) {
+                throw new IllegalArgumentException("load.replayFile is required for load.model=replay");
+            }
+            LoadStats stats = new LoadStats();
+            new TrafficReplayer(Paths.get(replayFile.trim()), Double.parseDouble(System.getProperty("load.replaySpeed", "1")), stats)
+                    .replay(Integer.getInteger("load.maxInFlight", 200), deadline, limit);
+            stats.report(model, System.nanoTime() - start);
+            return;
+        }
+
+        List<Map<String, Object>> scenarios = FileUtil.getTestCases(System.getProperty("load.scenarios", "all-payment-tests.json"));
+        String apiTypes = System.getProperty("load.apiTypes", "");
+        if (!apiTypes.trim().isEmpty()) {
+            Set<String> selected = new HashSet<>(Arrays.asList(apiTypes.split("\\s*,\\s*")));
+            scenarios = scenarios.stream().filter(s -> selected.contains(s.get("apiType"))).collect(Collectors.toList());
+        }
+
+        LoadRunner runner = new LoadRunner(scenarios);
+        switch (model) {
+            case "open":
+                runner.runOpen(Double.parseDouble(System.getProperty("load.rate", "10")),
+                        Integer.getInteger("load.maxInFlight", 200), deadline, limit);
+                break;
+            case "closed":
+                runner.runClosed(Integer.getInteger("load.users", 4), Long.getLong("load.thinkTimeMillis", 0), deadline, limit);
+                break;
+            default:
+                throw new IllegalArgumentException("load.model must be open, closed or replay: " + model);
+        }
+        runner.stats.report(model, System.nanoTime() - start);
+    }
+
+    /**
+     * Closed model: số user cố định, mỗi user chạy kịch bản kế tiếp ngay khi kịch bản trước xong (+ think time).
+     */
+    public void runClosed(int users, long thinkTimeMillis, long deadlineNanos, long iterations) throws InterruptedException {
+        LoggerUtil.info("Starting closed-model load: {} users, {} scenarios", users, scenarios.size());
+        AtomicLong remaining = new AtomicLong(iterations);
+        ExecutorService pool = Executors.newFixedThreadPool(users, daemonThreads("load-user"));
+        for (int i = 0; i < users; i++) {
+            pool.execute(() -> {
+                while (System.nanoTime() - deadlineNanos < 0 && remaining.getAndDecrement() > 0) {
+                    runScenario(System.nanoTime());
+                    if (thinkTimeMillis > 0) {
+                        try {
+                            Thread.sleep(thinkTimeMillis);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Open model: lượt đến theo tốc độ cố định, không phụ thuộc response; quá maxInFlight thì lượt đến bị bỏ và được đếm.
+     */
+    public void runOpen(double ratePerSecond, int maxInFlight, long deadlineNanos, long iterations) throws InterruptedException {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("load.rate must be positive: " + ratePerSecond);
+        }
+        LoggerUtil.info("Starting open-model load: {} arrivals/s, max {} in flight, {} scenarios",
+                ratePerSecond, maxInFlight, scenarios.size());
+        long periodNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        ExecutorService workers = Executors.newFixedThreadPool(maxInFlight, daemonThreads("load-worker"));
+        ScheduledExecutorService arrivals = Executors.newSingleThreadScheduledExecutor(daemonThreads("load-arrivals"));
+        long firstArrival = System.nanoTime();
+        AtomicLong arrived = new AtomicLong();
+        CountDownLatch finished = new CountDownLatch(1);
+
+        arrivals.scheduleAtFixedRate(() -> {
+            if (finished.getCount() == 0) {
+                return;
+            }
+            long index = arrived.getAndIncrement();
+            long intendedStart = firstArrival + index * periodNanos;
+            if (index >= iterations || intendedStart - deadlineNanos >= 0) {
+                finished.countDown();
+                return;
+            }
+            if (!inFlight.tryAcquire()) {
+                stats.recordDropped();
+                return;
+            }
+            workers.execute(() -> {
+                try {
+                    runScenario(intendedStart);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }, 0, periodNanos, TimeUnit.NANOSECONDS);
+
+        finished.await();
+        arrivals.shutdownNow();
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    private void runScenario(long startNanos) {
+        Map<String, Object> scenario = scenarios.get((int) (nextScenario.getAndIncrement() % scenarios.size()));
+        // Handler ghi thêm trace number vào test case nên mỗi lượt dùng một bản sao
+        Map<String, Object> testCase = new HashMap<>(scenario);
+        String apiType = (String) testCase.get("apiType");
+        ApiTestHandler handler = handlers.get(apiType);
+        boolean success;
+        try {
+            Map<String, String> dynamicValues = new HashMap<>();
+            Response response = handler.execute(testCase, dynamicValues);
+            handler.validateResponse(response, testCase);
+            if (testCase.get("expectedField") != null) {
+                TestUtils.validateExpectedField(response, testCase, dynamicValues);
+            }
+            success = true;
+        } catch (Throwable e) {
+            LoggerUtil.warn("Scenario {} ({}) failed: {}", testCase.get("testCaseId"), apiType, e.getMessage());
+            success = false;
+        }
+        stats.record(apiType, System.nanoTime() - startNanos, success);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
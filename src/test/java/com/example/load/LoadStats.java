@@ -0,0 +1,77 @@
+package com.example.load;
+
+import com.example.utils.LatencyHistogram;
+import com.example.utils.LoggerUtil;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thống kê kết quả chạy tải theo apiType: số lần, lỗi, throughput và phân vị độ trễ.
+ */
+class LoadStats {
+    private final Map<String, ApiTypeStats> byApiType = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    void record(String apiType, long latencyNanos, boolean success) {
+        ApiTypeStats stats = byApiType.computeIfAbsent(apiType, k -> new ApiTypeStats());
+        stats.latency.record(latencyNanos, TimeUnit.NANOSECONDS);
+        if (!success) {
+            stats.errors.increment();
+        }
+    }
+
+    /**
+     * Lượt đến (open model) bị bỏ vì đã đạt số request đang chạy tối đa.
+     */
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    void report(String model, long elapsedNanos) {
+        double elapsedSeconds = elapsedNanos / 1_000_000_000.0;
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%nLoad test summary (%s model, %.1f s, %d dropped arrivals)%n",
+                model, elapsedSeconds, dropped.sum()));
+        table.append(String.format("%-24s %8s %8s %8s %9s %9s %9s %9s %9s %9s%n",
+                "apiType", "count", "errors", "err%", "req/s", "p50 ms", "p90 ms", "p95 ms", "p99 ms", "max ms"));
+        long totalCount = 0;
+        long totalErrors = 0;
+        for (Map.Entry<String, ApiTypeStats> entry : new TreeMap<>(byApiType).entrySet()) {
+            LatencyHistogram latency = entry.getValue().latency;
+            long count = latency.getCount();
+            long errors = entry.getValue().errors.sum();
+            totalCount += count;
+            totalErrors += errors;
+            double throughput = count / elapsedSeconds;
+            double errorRate = count == 0 ? 0.0 : errors * 100.0 / count;
+            table.append(String.format("%-24s %8d %8d %8.2f %9.2f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    entry.getKey(), count, errors, errorRate, throughput,
+                    latency.percentileMillis(50), latency.percentileMillis(90), latency.percentileMillis(95),
+                    latency.percentileMillis(99), latency.getMaxMillis()));
+            LoggerUtil.event("load_summary")
+                    .field("model", model)
+                    .field("apiType", entry.getKey())
+                    .field("count", count)
+                    .field("errors", errors)
+                    .field("throughput", throughput)
+                    .field("p50Ms", latency.percentileMillis(50))
+                    .field("p90Ms", latency.percentileMillis(90))
+                    .field("p95Ms", latency.percentileMillis(95))
+                    .field("p99Ms", latency.percentileMillis(99))
+                    .field("maxMs", latency.getMaxMillis())
+                    .log();
+        }
+        table.append(String.format("%-24s %8d %8d %8.2f %9.2f%n", "TOTAL", totalCount, totalErrors,
+                totalCount == 0 ? 0.0 : totalErrors * 100.0 / totalCount, totalCount / elapsedSeconds));
+        System.out.print(table);
+    }
+
+    private static class ApiTypeStats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+    }
+}
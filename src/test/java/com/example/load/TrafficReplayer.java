@@ -0,0 +1,178 @@
+package com.example.load;
+
+import com.example.api.ApiMetrics;
+import com.example.api.AsyncApiClient;
+import com.example.api.TokenManager;
+import com.example.config.APIConfig;
+import com.example.utils.LoggerUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Phát lại file capture của {@link com.example.api.TrafficRecorder} theo đúng nhịp đã ghi (offsetMillis chia cho speed,
+ * speed &lt;= 0 là gửi nhanh nhất có thể) tới base URL hiện tại của {@link APIConfig}.
+ * File được memory-map và đọc tuần tự từng dòng nên capture lớn không phải nạp hết vào heap.
+ * Token request trong capture được bỏ qua, request dùng token của {@link TokenManager} cho base URL đích.
+ * Một lần gọi được tính là lỗi khi status khác status đã ghi; độ trễ tính từ thời điểm gửi theo lịch.
+ * Recorder ghi dòng khi response về nên offsetMillis chỉ gần tăng dần; dòng có offset đã qua được gửi ngay.
+ * Body được gửi nguyên văn nên server thật sẽ từ chối trace number trùng; replay giao dịch tạo mới nên chạy với stub.
+ */
+class TrafficReplayer {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Path capture;
+    private final double speed;
+    private final LoadStats stats;
+    private final TokenManager tokens = TokenManager.getInstance();
+
+    TrafficReplayer(Path capture, double speed, LoadStats stats) {
+        this.capture = capture;
+        this.speed = speed;
+        this.stats = stats;
+    }
+
+    void replay(int maxInFlight, long deadlineNanos, long iterations) throws IOException, InterruptedException {
+        LoggerUtil.info("Replaying {} at speed {} against {}", capture, speed, APIConfig.getBaseUrl());
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        Phaser pending = new Phaser(1);
+        // Lấy token trước khi bắt đầu tính giờ để request đầu tiên không bị dồn sau lần gọi token endpoint
+        tokens.getToken();
+        long start = System.nanoTime();
+        long sent = 0;
+        try (MappedLines lines = new MappedLines(capture)) {
+            JsonNode entry;
+            while (sent < iterations && (entry = lines.next()) != null) {
+                String method = entry.path("method").asText();
+                String path = entry.path("path").asText();
+                String url = path.startsWith("http") ? path : APIConfig.getBaseUrl() + path;
+                String endpoint = ApiMetrics.endpointOf(method, url);
+                if (ApiMetrics.TOKEN.equals(endpoint)) {
+                    continue;
+                }
+                long scheduledStart = speed > 0
+                        ? start + (long) (TimeUnit.MILLISECONDS.toNanos(entry.path("offsetMillis").asLong()) / speed)
+                        : System.nanoTime();
+                if (scheduledStart - deadlineNanos >= 0) {
+                    break;
+                }
+                waitUntil(scheduledStart);
+                sent++;
+                if (!inFlight.tryAcquire()) {
+                    stats.recordDropped();
+                    continue;
+                }
+                pending.register();
+                int expectedStatus = entry.path("status").asInt();
+                String body = entry.path("requestBody").isTextual() ? entry.path("requestBody").asText() : null;
+                send(method, url, body).whenComplete((response, error) -> {
+                    boolean success = error == null && response.getStatusCode() == expectedStatus;
+                    if (error != null) {
+                        LoggerUtil.warn("Replay {} {} failed: {}", method, url, error.getMessage());
+                    } else if (!success) {
+                        LoggerUtil.warn("Replay {} {} returned {} (recorded {})", method, url,
+                                response.getStatusCode(), expectedStatus);
+                    }
+                    stats.record(endpoint, System.nanoTime() - scheduledStart, success);
+                    inFlight.release();
+                    pending.arriveAndDeregister();
+                });
+            }
+        }
+        pending.arriveAndAwaitAdvance();
+        LoggerUtil.info("Replayed {} requests from {}", sent, capture);
+    }
+
+    private CompletableFuture<Response> send(String method, String url, String body) {
+        if ("GET".equalsIgnoreCase(method)) {
+            return tokens.executeAsync(t -> AsyncApiClient.get(url, t));
+        }
+        if ("POST".equalsIgnoreCase(method) && body != null) {
+            return tokens.executeAsync(t -> AsyncApiClient.postJson(url, t, body));
+        }
+        return CompletableFuture.failedFuture(new IllegalArgumentException("Cannot replay " + method + " " + url));
+    }
+
+    private static void waitUntil(long deadlineNanos) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Đọc file JSONL qua các cửa sổ memory-map (mỗi cửa sổ tối đa 256 MB, map lại tại đầu dòng khi vượt qua).
+     */
+    private static class MappedLines implements AutoCloseable {
+        private static final long WINDOW_SIZE = 256L << 20;
+
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer window;
+        private long windowStart;
+        private long position;
+        private byte[] line = new byte[8192];
+
+        MappedLines(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.size = channel.size();
+        }
+
+        /**
+         * Dòng JSON kế tiếp, bỏ qua dòng trống; null khi hết file.
+         */
+        JsonNode next() throws IOException {
+            while (position < size) {
+                int length = 0;
+                while (position < size) {
+                    if (window == null || position >= windowStart + window.limit()) {
+                        windowStart = position;
+                        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+                    }
+                    byte b = window.get((int) (position - windowStart));
+                    position++;
+                    if (b == '\n') {
+                        break;
+                    }
+                    if (length == line.length) {
+                        line = Arrays.copyOf(line, length * 2);
+                    }
+                    line[length++] = b;
+                }
+                if (!isBlank(line, length)) {
+                    return MAPPER.readTree(line, 0, length);
+                }
+            }
+            return null;
+        }
+
+        private static boolean isBlank(byte[] bytes, int length) {
+            for (int i = 0; i < length; i++) {
+                if (bytes[i] != ' ' && bytes[i] != '\r' && bytes[i] != '\t') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package com.example.stub;
+
+import com.example.config.APIConfig;
+import com.example.utils.LoggerUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stub server local thay cho ACB sandbox, phục vụ các endpoint mà repo dùng: OIDC token, tạo/tra cứu transaction
+ * và bulk transaction. Giao dịch mới ở trạng thái ORIG và chuyển sang TRAN (đơn lẻ) / COMP (bulk) hoặc RJCT sau
+ * {@link StubBehavior#getTransitionMillis()}; độ trễ và lỗi 5xx được giả lập theo {@link StubBehavior}.
+ * Trace number chưa từng được tạo qua stub được trả về như giao dịch cũ đã hoàn tất (giống dữ liệu có sẵn trên sandbox)
+ * nhưng không được lưu, nên tra cứu trước khi tạo không làm lần tạo sau bị coi là trùng.
+ * <p>
+ * Bật trong test/load runner bằng -Dapi.stub=true (port ngẫu nhiên, hoặc -Dstub.port); chạy riêng bằng {@link #main}.
+ */
+public class PaymentSandboxStub implements AutoCloseable {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String CONTEXT_PATH = "/acb/open";
+    private static PaymentSandboxStub shared;
+
+    private final StubBehavior behavior;
+    private final HttpServer server;
+    private final ExecutorService handlerPool;
+    private final ScheduledExecutorService responder;
+    private final Map<String, Long> tokenExpiry = new ConcurrentHashMap<>();
+    private final Map<String, StoredTransaction> transactions = new ConcurrentHashMap<>();
+    private final Map<String, StoredBulk> bulks = new ConcurrentHashMap<>();
+
+    private PaymentSandboxStub(int port, StubBehavior behavior) throws IOException {
+        this.behavior = behavior;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        this.handlerPool = Executors.newFixedThreadPool(Integer.getInteger("stub.threads", 4), daemonThreads("stub-http"));
+        this.responder = Executors.newSingleThreadScheduledExecutor(daemonThreads("stub-responder"));
+        server.createContext(CONTEXT_PATH, this::handle);
+        server.setExecutor(handlerPool);
+    }
+
+    public static PaymentSandboxStub start(int port, StubBehavior behavior) {
+        try {
+            PaymentSandboxStub stub = new PaymentSandboxStub(port, behavior);
+            // Thread HTTP-Dispatcher kế thừa cờ daemon của thread gọi start(), nên start từ thread daemon
+            Thread starter = new Thread(stub.server::start, "stub-start");
+            starter.setDaemon(true);
+            starter.start();
+            starter.join();
+            LoggerUtil.info("Payment sandbox stub listening on {} ({})", stub.getBaseUrl(), behavior);
+            return stub;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start payment sandbox stub on port " + port, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while starting payment sandbox stub", e);
+        }
+    }
+
+    /**
+     * Khi -Dapi.stub=true: khởi động một stub dùng chung cho cả JVM (một lần) và trỏ {@link APIConfig} tới stub.
+     */
+    public static synchronized void startIfRequested() {
+        if (shared != null || !Boolean.getBoolean("api.stub")) {
+            return;
+        }
+        shared = start(Integer.getInteger("stub.port", 0), StubBehavior.fromSystemProperties());
+        APIConfig.setBaseUrl(shared.getBaseUrl());
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        PaymentSandboxStub stub = start(Integer.getInteger("stub.port", 8089), StubBehavior.fromSystemProperties());
+        System.out.println("Payment sandbox stub running at " + stub.getBaseUrl() + " (use -Dapi.baseUrl=" + stub.getBaseUrl() + ")");
+        Thread.currentThread().join();
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + CONTEXT_PATH;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        responder.shutdownNow();
+        handlerPool.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath().substring(CONTEXT_PATH.length());
+        String method = exchange.getRequestMethod();
+        StubResponse response;
+        try {
+            if (behavior.shouldFail()) {
+                response = error(503, "SERVICE_UNAVAILABLE", "Injected failure");
+            } else if (path.equals(APIConfig.TOKEN_PATH) && method.equals("POST")) {
+                response = issueToken(readBody(exchange));
+            } else if (!isAuthorized(exchange)) {
+                response = new StubResponse(401, MAPPER.createObjectNode().put("error", "invalid_token"));
+            } else if (path.equals(APIConfig.PAYMENT_PATH) && method.equals("POST")) {
+                response = createTransaction(readJson(exchange));
+            } else if (path.equals(APIConfig.PAYMENT_PATH) && method.equals("GET")) {
+                response = queryTransaction(queryParams(exchange));
+            } else if (path.equals(APIConfig.BULK_TRANSACTION_PATH) && method.equals("POST")) {
+                response = createBulk(readJson(exchange));
+            } else if (path.equals(APIConfig.BULK_TRANSACTION_PATH) && method.equals("GET")) {
+                response = queryBulk(queryParams(exchange));
+            } else {
+                response = error(404, "NOT_FOUND", method + " " + path);
+            }
+        } catch (IOException | RuntimeException e) {
+            response = error(400, "BAD_REQUEST", e.getMessage());
+        }
+        StubResponse finalResponse = response;
+        responder.schedule(() -> send(exchange, finalResponse), behavior.nextLatencyMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private StubResponse issueToken(String formBody) {
+        Map<String, String> form = parseForm(formBody);
+        if (!"client_credentials".equals(form.get("grant_type"))
+                || !APIConfig.CLIENT_ID.equals(form.get("client_id"))
+                || !APIConfig.CLIENT_SECRET.equals(form.get("client_secret"))) {
+            return new StubResponse(401, MAPPER.createObjectNode().put("error", "invalid_client"));
+        }
+        String token = UUID.randomUUID().toString();
+        tokenExpiry.put(token, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(behavior.getTokenExpiresInSeconds()));
+        ObjectNode body = MAPPER.createObjectNode()
+                .put("access_token", token)
+                .put("expires_in", behavior.getTokenExpiresInSeconds())
+                .put("token_type", "Bearer");
+        return new StubResponse(200, body);
+    }
+
+    private boolean isAuthorized(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return false;
+        }
+        Long expiresAt = tokenExpiry.get(authorization.substring("Bearer ".length()));
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    private StubResponse createTransaction(JsonNode request) {
+        JsonNode transaction = request.path("requestParameters").path("data").path("transaction");
+        String traceNumber = transaction.path("transactionTraceNumber").asText(null);
+        if (traceNumber == null || traceNumber.isEmpty()) {
+            return error(400, "INVALID_REQUEST", "transactionTraceNumber is required");
+        }
+        StoredTransaction stored = new StoredTransaction(traceNumber, transaction.path("transactionType").asText(),
+                transaction.path("amount"), behavior.shouldReject() ? "RJCT" : "TRAN");
+        if (transactions.putIfAbsent(traceNumber, stored) != null) {
+            return error(409, "DUPLICATE_TRACE_NUMBER", "transactionTraceNumber already exists: " + traceNumber);
+        }
+        ObjectNode body = envelope(request);
+        ((ObjectNode) body.path("responseData")).set("transaction", stored.toJson());
+        return new StubResponse(200, body);
+    }
+
+    private StubResponse queryTransaction(Map<String, String> params) {
+        String traceNumber = params.get("transactionTraceNumber");
+        if (traceNumber == null || traceNumber.isEmpty()) {
+            return error(400, "INVALID_REQUEST", "transactionTraceNumber is required");
+        }
+        StoredTransaction stored = transactions.getOrDefault(traceNumber, historicalTransaction(traceNumber));
+        ObjectNode body = envelope(null);
+        ((ObjectNode) body.path("responseData")).putArray("transactions").add(stored.toJson());
+        return new StubResponse(200, body);
+    }
+
+    private StubResponse createBulk(JsonNode request) {
+        JsonNode data = request.path("requestParameters").path("data");
+        String bulkTraceNumber = data.path("bulkTraceNumber").asText(null);
+        if (bulkTraceNumber == null || bulkTraceNumber.isEmpty() || !data.path("transactions").isArray()) {
+            return error(400, "INVALID_REQUEST", "bulkTraceNumber and transactions are required");
+        }
+        StoredBulk bulk = new StoredBulk(bulkTraceNumber, behavior.shouldReject() ? "RJCT" : "COMP");
+        for (JsonNode transaction : data.path("transactions")) {
+            String traceNumber = transaction.path("transactionTraceNumber").asText();
+            if (traceNumber.isEmpty() || bulk.transactions.containsKey(traceNumber)) {
+                return error(400, "INVALID_REQUEST", "Missing or duplicate transactionTraceNumber in bulk: " + traceNumber);
+            }
+            bulk.transactions.put(traceNumber, new StoredTransaction(traceNumber, transaction.path("transactionType").asText(),
+                    transaction.path("amount"), "RJCT".equals(bulk.finalStatus) ? "RJCT" : "TRAN"));
+        }
+        if (bulks.putIfAbsent(bulkTraceNumber, bulk) != null) {
+            return error(409, "DUPLICATE_TRACE_NUMBER", "bulkTraceNumber already exists: " + bulkTraceNumber);
+        }
+        ObjectNode body = envelope(request);
+        ObjectNode bulkNode = ((ObjectNode) body.path("responseData")).putObject("bulkTransaction");
+        bulkNode.put("bulkTraceNumber", bulkTraceNumber)
+                .put("bulkStatus", bulk.status())
+                .put("transactionCount", bulk.transactions.size());
+        return new StubResponse(200, body);
+    }
+
+    private StubResponse queryBulk(Map<String, String> params) {
+        String bulkTraceNumber = params.get("bulkTraceNumber");
+        if (bulkTraceNumber == null || bulkTraceNumber.isEmpty()) {
+            return error(400, "INVALID_REQUEST", "bulkTraceNumber is required");
+        }
+        StoredBulk bulk = bulks.getOrDefault(bulkTraceNumber, historicalBulk(bulkTraceNumber));
+        ObjectNode body = envelope(null);
+        ((ObjectNode) body.path("responseData")).putArray("bulkTransactions").add(bulk.toJson());
+        return new StubResponse(200, body);
+    }
+
+    private StoredTransaction historicalTransaction(String traceNumber) {
+        return new StoredTransaction(traceNumber, "INSIDEBANK", MAPPER.missingNode(), "TRAN", 0);
+    }
+
+    private StoredBulk historicalBulk(String bulkTraceNumber) {
+        return new StoredBulk(bulkTraceNumber, "COMP", 0);
+    }
+
+    private static ObjectNode envelope(JsonNode request) {
+        ObjectNode body = MAPPER.createObjectNode();
+        body.put("requestTrace", request == null ? UUID.randomUUID().toString() : request.path("requestTrace").asText());
+        body.put("responseDateTime", OffsetDateTime.now().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+        body.putObject("responseStatus").put("responseCode", "00000000").put("responseMessage", "Success");
+        body.putObject("responseData");
+        return body;
+    }
+
+    private static StubResponse error(int status, String code, String message) {
+        ObjectNode body = MAPPER.createObjectNode();
+        body.putObject("responseStatus").put("responseCode", code).put("responseMessage", message);
+        return new StubResponse(status, body);
+    }
+
+    private static void send(HttpExchange exchange, StubResponse response) {
+        try {
+            byte[] body = MAPPER.writeValueAsBytes(response.body);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(response.status, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        } catch (IOException e) {
+            LoggerUtil.warn("Stub failed to send response: {}", e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream is = exchange.getRequestBody()) {
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static JsonNode readJson(HttpExchange exchange) throws IOException {
+        try (InputStream is = exchange.getRequestBody()) {
+            return MAPPER.readTree(is);
+        }
+    }
+
+    private static Map<String, String> queryParams(HttpExchange exchange) {
+        return parseForm(exchange.getRequestURI().getRawQuery());
+    }
+
+    private static Map<String, String> parseForm(String encoded) {
+        Map<String, String> params = new HashMap<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return params;
+        }
+        for (String pair : encoded.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class StubResponse {
+        private final int status;
+        private final JsonNode body;
+
+        StubResponse(int status, JsonNode body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Giao dịch đã tạo; trạng thái tính theo thời gian đã trôi qua nên không cần thread chuyển trạng thái.
+     */
+    private class StoredTransaction {
+        private final String traceNumber;
+        private final String transactionType;
+        private final JsonNode amount;
+        private final String finalStatus;
+        private final long createdAtMillis;
+
+        StoredTransaction(String traceNumber, String transactionType, JsonNode amount, String finalStatus) {
+            this(traceNumber, transactionType, amount, finalStatus, System.currentTimeMillis());
+        }
+
+        StoredTransaction(String traceNumber, String transactionType, JsonNode amount, String finalStatus, long createdAtMillis) {
+            this.traceNumber = traceNumber;
+            this.transactionType = transactionType;
+            this.amount = amount;
+            this.finalStatus = finalStatus;
+            this.createdAtMillis = createdAtMillis;
+        }
+
+        String status() {
+            return System.currentTimeMillis() - createdAtMillis >= behavior.getTransitionMillis() ? finalStatus : "ORIG";
+        }
+
+        ObjectNode toJson() {
+            ObjectNode node = MAPPER.createObjectNode()
+                    .put("transactionTraceNumber", traceNumber)
+                    .put("transactionType", transactionType)
+                    .put("status", status());
+            if (!amount.isMissingNode()) {
+                node.set("amount", amount);
+            }
+            return node;
+        }
+    }
+
+    private class StoredBulk {
+        private final String bulkTraceNumber;
+        private final String finalStatus;
+        private final long createdAtMillis;
+        private final Map<String, StoredTransaction> transactions = new LinkedHashMap<>();
+
+        StoredBulk(String bulkTraceNumber, String finalStatus) {
+            this(bulkTraceNumber, finalStatus, System.currentTimeMillis());
+        }
+
+        StoredBulk(String bulkTraceNumber, String finalStatus, long createdAtMillis) {
+            this.bulkTraceNumber = bulkTraceNumber;
+            this.finalStatus = finalStatus;
+            this.createdAtMillis = createdAtMillis;
+        }
+
+        String status() {
+            return System.currentTimeMillis() - createdAtMillis >= behavior.getTransitionMillis() ? finalStatus : "ORIG";
+        }
+
+        ObjectNode toJson() {
+            ObjectNode node = MAPPER.createObjectNode()
+                    .put("bulkTraceNumber", bulkTraceNumber)
+                    .put("bulkStatus", status())
+                    .put("transactionCount", transactions.size());
+            ArrayNode items = node.putArray("transactions");
+            transactions.values().forEach(transaction -> items.add(transaction.toJson()));
+            return node;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.stub;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Hành vi giả lập của {@link PaymentSandboxStub}: độ trễ, tỉ lệ lỗi 5xx, thời gian chuyển trạng thái
+ * ORIG -&gt; TRAN/COMP và tỉ lệ giao dịch kết thúc RJCT.
+ * Giá trị mặc định đọc từ system property stub.latencyMillis, stub.latencyJitterMillis, stub.errorRate,
+ * stub.transitionMillis, stub.rejectRate, stub.tokenExpiresInSeconds.
+ */
+public class StubBehavior {
+    private final long latencyMillis;
+    private final long latencyJitterMillis;
+    private final double errorRate;
+    private final long transitionMillis;
+    private final double rejectRate;
+    private final long tokenExpiresInSeconds;
+
+    public StubBehavior(long latencyMillis, long latencyJitterMillis, double errorRate, long transitionMillis,
+                        double rejectRate, long tokenExpiresInSeconds) {
+        if (latencyMillis < 0 || latencyJitterMillis < 0 || transitionMillis < 0) {
+            throw new IllegalArgumentException("Invalid stub timing: latency=" + latencyMillis + ", jitter="
+                    + latencyJitterMillis + ", transition=" + transitionMillis);
+        }
+        if (errorRate < 0.0 || errorRate > 1.0 || rejectRate < 0.0 || rejectRate > 1.0) {
+            throw new IllegalArgumentException("Stub rates must be between 0 and 1: errorRate=" + errorRate
+                    + ", rejectRate=" + rejectRate);
+        }
+        if (tokenExpiresInSeconds <= 0) {
+            throw new IllegalArgumentException("tokenExpiresInSeconds must be positive: " + tokenExpiresInSeconds);
+        }
+        this.latencyMillis = latencyMillis;
+        this.latencyJitterMillis = latencyJitterMillis;
+        this.errorRate = errorRate;
+        this.transitionMillis = transitionMillis;
+        this.rejectRate = rejectRate;
+        this.tokenExpiresInSeconds = tokenExpiresInSeconds;
+    }
+
+    public static StubBehavior fromSystemProperties() {
+        return new StubBehavior(
+                Long.getLong("stub.latencyMillis", 20),
+                Long.getLong("stub.latencyJitterMillis", 10),
+                Double.parseDouble(System.getProperty("stub.errorRate", "0")),
+                Long.getLong("stub.transitionMillis", 1000),
+                Double.parseDouble(System.getProperty("stub.rejectRate", "0")),
+                Long.getLong("stub.tokenExpiresInSeconds", 300));
+    }
+
+    public StubBehavior withLatency(long newLatencyMillis, long newJitterMillis) {
+        return new StubBehavior(newLatencyMillis, newJitterMillis, errorRate, transitionMillis, rejectRate, tokenExpiresInSeconds);
+    }
+
+    public StubBehavior withErrorRate(double newErrorRate) {
+        return new StubBehavior(latencyMillis, latencyJitterMillis, newErrorRate, transitionMillis, rejectRate, tokenExpiresInSeconds);
+    }
+
+    public StubBehavior withTransitionMillis(long newTransitionMillis) {
+        return new StubBehavior(latencyMillis, latencyJitterMillis, errorRate, newTransitionMillis, rejectRate, tokenExpiresInSeconds);
+    }
+
+    public StubBehavior withRejectRate(double newRejectRate) {
+        return new StubBehavior(latencyMillis, latencyJitterMillis, errorRate, transitionMillis, newRejectRate, tokenExpiresInSeconds);
+    }
+
+    public long getTransitionMillis() {
+        return transitionMillis;
+    }
+
+    public long getTokenExpiresInSeconds() {
+        return tokenExpiresInSeconds;
+    }
+
+    /**
+     * Độ trễ cho một response: latencyMillis ± latencyJitterMillis (không âm).
+     */
+    long nextLatencyMillis() {
+        if (latencyJitterMillis == 0) {
+            return latencyMillis;
+        }
+        long jitter = ThreadLocalRandom.current().nextLong(-latencyJitterMillis, latencyJitterMillis + 1);
+        return Math.max(0, latencyMillis + jitter);
+    }
+
+    boolean shouldFail() {
+        return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+
+    boolean shouldReject() {
+        return rejectRate > 0 && ThreadLocalRandom.current().nextDouble() < rejectRate;
+    }
+
+    @Override
+    public String toString() {
+        return "latency=" + latencyMillis + "±" + latencyJitterMillis + "ms, errorRate=" + errorRate
+                + ", transition=" + transitionMillis + "ms, rejectRate=" + rejectRate;
+    }
+}
@@ -1,271 +1,258 @@
 package com.example.tests;
 
+import com.example.TestCase;
 import com.example.api.*;
+import com.example.stub.PaymentSandboxStub;
 import com.example.tests.handlers.BulkTransactionHandler;
 import com.example.tests.handlers.CreateAndQueryBulkHandler;
+import com.example.tests.handlers.PostPaymentHandler;
+import com.example.tests.utils.ApiTypeLimiter;
+import com.example.tests.utils.DynamicTestWindow;
 import com.example.tests.utils.TestUtils;
 import com.example.utils.FileUtil;
 import com.example.utils.LoggerUtil;
-import com.example.utils.SignatureUtil;
+import com.example.utils.TemplateRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.qameta.allure.Allure;
 import io.restassured.response.Response;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 
 public class APITests {
-    private static final Map<String, Response> responseCache = new HashMap<>();
-    private static final String token = TokenAPI.getAccessToken();
+    private static final Map<String, Response> responseCache = new ConcurrentHashMap<>();
+    private static final TokenManager tokens = TokenManager.getInstance();
     private static final ObjectMapper mapper = new ObjectMapper();
     private final CreateAndQueryBulkHandler bulkQueryHandler = new CreateAndQueryBulkHandler(mapper);
     private final BulkTransactionHandler bulkHandler = new BulkTransactionHandler(mapper);
+    private final PostPaymentHandler postPaymentHandler = new PostPaymentHandler();
+
+    @BeforeAll
+    static void startStubIfRequested() {
+        // -Dapi.stub=true: chạy với stub local thay cho sandbox
+        PaymentSandboxStub.startIfRequested();
+        // Nạp và kiểm tra mọi request template trước khi chạy test case nào
+        TemplateRegistry.getDefault();
+    }
 
+    /**
+     * Test case được đọc lần lượt từ catalog (mảng JSON hoặc JSONL, chọn bằng -Dtest.cases) và sinh DynamicTest
+     * khi JUnit kéo tới, nên test đầu tiên chạy ngay. Ở chế độ CONCURRENT JUnit submit mỗi test ngay khi kéo được,
+     * nên stream đi qua {@link DynamicTestWindow}: chỉ tối đa -Dtest.window test đang chờ hoặc đang chạy, factory
+     * dừng kéo cho tới khi có test chạy xong, bị skip hoặc bị lọc. Giới hạn theo apiType nằm trong executable
+     * ({@link ApiTypeLimiter#run}).
+     */
     @TestFactory
-    public List<DynamicTest> testAllPaymentOrders() throws Exception {
-        List<Map<String, Object>> testCases = FileUtil.getTestCases("all-payment-tests.json");
+    @Execution(ExecutionMode.CONCURRENT)
+    public Stream<DynamicTest> testAllPaymentOrders() throws Exception {
+        Stream<TestCase> testCases = FileUtil.streamTestCases(System.getProperty("test.cases", "all-payment-tests.json"));
         String testCaseId = System.getenv("TEST_CASE_ID");
         LoggerUtil.info("TEST_CASE_ID from environment: {}", testCaseId);
 
         if (testCaseId != null && !testCaseId.isEmpty()) {
-            testCases = testCases.stream()
-                    .filter(tc -> testCaseId.equals(tc.get("testCaseId")))
-                    .collect(Collectors.toList());
-            if (testCases.isEmpty()) {
-                LoggerUtil.info("No test case found for TEST_CASE_ID: {}", testCaseId);
-            } else {
-                LoggerUtil.info("Running test case: {}", testCaseId);
-            }
+            LoggerUtil.info("Running test case: {}", testCaseId);
+            testCases = testCases.filter(tc -> testCaseId.equals(tc.getTestCaseId()));
         } else {
             LoggerUtil.info("No TEST_CASE_ID specified, running all test cases");
         }
 
-        return testCases.stream().map(tc -> {
-            String displayName = (String) tc.get("testName");
+        return DynamicTestWindow.of(testCases.map(tc -> {
+            String displayName = tc.getTestName();
             if (displayName == null || displayName.trim().isEmpty()) {
-                displayName = "Test_" + tc.get("testCaseId");
+                displayName = "Test_" + tc.getTestCaseId();
                 LoggerUtil.info("testName is null or blank, using default: {}", displayName);
             }
 
-            return DynamicTest.dynamicTest(displayName, () -> {
-                String requestTemplateKey = (String) tc.get("requestTemplateKey");
-                Integer expectedStatusCode = (Integer) tc.get("expectedStatusCode");
-                String expectedField = (String) tc.get("expectedField");
-                String expectedValue = (String) tc.get("expectedValue");
-                String apiType = (String) tc.get("apiType");
-
-                // Thêm log để kiểm tra apiType
-                LoggerUtil.info("Processing test case {} with apiType: {}", tc.get("testCaseId"), apiType);
-                Allure.step("Test Case ID: " + tc.get("testCaseId"));
-                Allure.step("Description: " + tc.get("description"));
-
-                Map<String, String> dynamicValues = new HashMap<>();
-                Response response;
-
-                if ("CREATE_AND_QUERY".equals(apiType)) {
-                    ObjectNode dynamicRequest = TestUtils.createDynamicRequest(requestTemplateKey, dynamicValues);
-                    String traceNumber = TestUtils.generateTraceNumber(dynamicRequest, dynamicValues);
-                    updateRequestBody(dynamicRequest);
-
-                    Allure.addAttachment("Dynamic requestTrace", dynamicValues.get("requestTrace"));
-                    Allure.addAttachment("Dynamic requestDateTime", dynamicValues.get("requestDateTime"));
-                    Allure.addAttachment("Dynamic transactionTraceNumber", traceNumber);
-
-                    Allure.step("Step 1: Sending create payment order request");
-                    response = TestUtils.callApiAndLogResponse(
-                            "Step 1: Sending create payment order request",
-                            dynamicRequest.toPrettyString(),
-                            PaymentOrderAPI.createPaymentOrder(token, dynamicRequest)
-                    );
-
-                    response.then().statusCode(200);
-
-                    String status = response.jsonPath().getString("responseData.transaction.status");
-                    assertThat("Payment order status should be ORIG", status, equalTo("ORIG"));
-
-                    String createdTraceNumber = response.jsonPath()
-                            .getString("responseData.transaction.transactionTraceNumber");
-                    if (createdTraceNumber == null) {
-                        throw new RuntimeException("transactionTraceNumber not found in create payment order response");
-                    }
-                    Allure.addAttachment("Created transactionTraceNumber", createdTraceNumber);
-
-                    Allure.step("Waiting 10 seconds before querying transaction history");
-                    Thread.sleep(10000);
-
-                    String fromDate = (String) tc.get("fromDate");
-                    String toDate = (String) tc.get("toDate");
-                    if (fromDate == null || fromDate.trim().isEmpty()) {
-                        fromDate = TestUtils.getDefaultFromDate();
-                        LoggerUtil.info("fromDate not specified in test case, using current date: {}", fromDate);
-                    }
-                    if (toDate == null || toDate.trim().isEmpty()) {
-                        toDate = TestUtils.getDefaultToDate();
-                        LoggerUtil.info("toDate not specified in test case, using current date: {}", toDate);
-                    }
-
-                    dynamicValues.put("transactionTraceNumber", createdTraceNumber);
-                    Allure.addAttachment("Query transactionTraceNumber", createdTraceNumber);
-                    Allure.addAttachment("Query fromDate", fromDate);
-                    Allure.addAttachment("Query toDate", toDate);
-
-                    Allure.step("Step 2: Querying transaction history with created trace");
-                    response = TestUtils.callApiAndLogResponse(
-                            "Step 2: Querying transaction history with created trace",
-                            "None (GET request)",
-                            TransactionTraceAPI.getTransactionHistory(token, createdTraceNumber, fromDate, toDate)
-                    );
-
-                    response.then().statusCode(200);
-
-                    List<Map<String, Object>> transactions = response.jsonPath().getList("responseData.transactions");
-                    if (transactions == null || transactions.isEmpty()) {
-                        throw new RuntimeException("No transactions found in history for traceNumber: " + createdTraceNumber);
-                    }
-
-                    String queryStatus = response.jsonPath().getString("responseData.transactions[0].status");
-                    assertThat("Transaction history status should be TRAN", queryStatus, equalTo("TRAN"));
-                } else if ("CREATE_AND_QUERY_BULK".equals(apiType)) {
-                    LoggerUtil.info("Executing CREATE_AND_QUERY_BULK for test case: {}", tc.get("testCaseId"));
-                    response = bulkQueryHandler.execute(tc, dynamicValues);
-                    bulkQueryHandler.validateResponse(response, tc);
-                    return;
-                } else if ("BULK_TRANSACTION".equals(apiType)) {
-                    response = bulkHandler.execute(tc, dynamicValues);
-                    bulkHandler.validateResponse(response, tc);
-                    return;
-                } else if ("GET_TRANSACTION".equals(apiType)) {
-                    String transactionTraceNumber = (String) tc.get("transactionTraceNumber");
-                    String fromDate = (String) tc.get("fromDate");
-                    String toDate = (String) tc.get("toDate");
-                    if (fromDate == null || fromDate.trim().isEmpty()) {
-                        fromDate = TestUtils.getDefaultFromDate();
-                        LoggerUtil.info("fromDate not specified in test case, using current date: {}", fromDate);
-                    }
-                    if (toDate == null || toDate.trim().isEmpty()) {
-                        toDate = TestUtils.getDefaultToDate();
-                        LoggerUtil.info("toDate not specified in test case, using current date: {}", toDate);
-                    }
-
-                    dynamicValues.put("transactionTraceNumber", transactionTraceNumber);
-                    Allure.addAttachment("Dynamic transactionTraceNumber", transactionTraceNumber);
-                    Allure.addAttachment("Dynamic fromDate", fromDate);
-                    Allure.addAttachment("Dynamic toDate", toDate);
-
-                    response = TestUtils.callApiAndLogResponse(
-                            "Sending transaction history request",
-                            "None (GET request)",
-                            TransactionTraceAPI.getTransactionHistory(token, transactionTraceNumber, fromDate, toDate)
-                    );
-                } else if ("GET_BULK_TRANSACTION".equals(apiType)) {
-                    String bulkTraceNumber = (String) tc.get("bulkTraceNumber");
-                    if (bulkTraceNumber == null || bulkTraceNumber.trim().isEmpty()) {
-                        throw new IllegalArgumentException("bulkTraceNumber is required for GET_BULK_TRANSACTION");
-                    }
-
-                    String fromDate = (String) tc.get("fromDate");
-                    String toDate = (String) tc.get("toDate");
-                    if (fromDate == null || fromDate.trim().isEmpty()) {
-                        fromDate = TestUtils.getDefaultFromDate();
-                        LoggerUtil.info("fromDate not specified in test case, using current date: {}", fromDate);
-                    }
-                    if (toDate == null || toDate.trim().isEmpty()) {
-                        toDate = TestUtils.getDefaultToDate();
-                        LoggerUtil.info("toDate not specified in test case, using current date: {}", toDate);
-                    }
-
-                    dynamicValues.put("bulkTraceNumber", bulkTraceNumber);
-                    Allure.addAttachment("Dynamic bulkTraceNumber", bulkTraceNumber);
-                    Allure.addAttachment("Dynamic fromDate", fromDate);
-                    Allure.addAttachment("Dynamic toDate", toDate);
-
-                    response = TestUtils.callApiAndLogResponse(
-                            "Sending bulk transaction query request",
-                            "None (GET request)",
-                            BulkTransactionQueryAPI.getBulkTransaction(token, bulkTraceNumber, fromDate, toDate)
-                    );
-
-                    List<Map<String, Object>> bulkTransactions = response.jsonPath().getList("responseData.bulkTransactions");
-                    if (bulkTransactions == null || bulkTransactions.isEmpty()) {
-                        throw new RuntimeException("No bulk transactions found in query response for bulkTraceNumber: " +
-                                bulkTraceNumber + " with fromDate: " + fromDate + " and toDate: " + toDate);
-                    }
-
-                    String bulkStatus = response.jsonPath().getString("responseData.bulkTransactions[0].bulkStatus");
-                    if (bulkStatus == null) {
-                        throw new RuntimeException("bulkStatus not found in query bulk transaction response");
-                    }
-                    assertThat("Bulk transaction status should be COMP", bulkStatus, equalTo("COMP"));
-                } else {
-                    if (requestTemplateKey == null || requestTemplateKey.trim().isEmpty()) {
-                        throw new IllegalArgumentException("requestTemplateKey is required for API type: " + apiType);
-                    }
-                    response = responseCache.computeIfAbsent(requestTemplateKey + "_" + tc.get("testCaseId"), key -> {
-                        try {
-                            ObjectNode dynamicRequest = TestUtils.createDynamicRequest(requestTemplateKey, dynamicValues);
-                            boolean isBulkTransaction = dynamicRequest.path("requestParameters")
-                                    .path("data")
-                                    .has("transactions");
-                            if (isBulkTransaction) {
-                                LoggerUtil.info("Detected bulk transaction template: {}", requestTemplateKey);
-                                TestUtils.updateTransactions(dynamicRequest, dynamicValues);
-                                return TestUtils.callApiAndLogResponse(
-                                        "Sending bulk transaction request for " + requestTemplateKey,
-                                        dynamicRequest.toPrettyString(),
-                                        BulkTransactionCreateAPI.createBulkTransaction(token, dynamicRequest)
-                                );
-                            } else {
-                                LoggerUtil.info("Detected single transaction template: {}", requestTemplateKey);
-                                TestUtils.generateTraceNumber(dynamicRequest, dynamicValues);
-                                updateRequestBody(dynamicRequest);
-                                return TestUtils.callApiAndLogResponse(
-                                        "Sending request for " + requestTemplateKey,
-                                        dynamicRequest.toPrettyString(),
-                                        PaymentOrderAPI.createPaymentOrder(token, dynamicRequest)
-                                );
-                            }
-                        } catch (Exception e) {
-                            LoggerUtil.error("Failed to send request for {}: {}", requestTemplateKey, e.getMessage(), e);
-                            Allure.step("Failed to send request: " + e.getMessage(), io.qameta.allure.model.Status.FAILED);
-                            throw new RuntimeException("Failed to send request for " + requestTemplateKey, e);
-                        }
-                    });
-                }
-
-                response.then().statusCode(expectedStatusCode);
-                TestUtils.validateExpectedField(response, tc, dynamicValues);
-            });
-        }).collect(Collectors.toList());
+            return DynamicTest.dynamicTest(displayName,
+                    () -> ApiTypeLimiter.run(tc.getApiType(), () -> runTestCase(tc.toMap())));
+        }));
     }
 
-    private void updateRequestBody(ObjectNode dynamicRequest) throws Exception {
-        ObjectNode requestParameters = (ObjectNode) dynamicRequest.get("requestParameters");
-        ObjectNode data = (ObjectNode) requestParameters.get("data");
-
-        requestParameters.get("authorizations").forEach(auth -> {
-            String authorizationId = auth.get("authorizationId").asText();
-            try {
-                LoggerUtil.info("Generating authorizationString for authorizationId: {}", authorizationId);
-                Allure.step("Generating authorizationString for authorizationId: " + authorizationId);
-                String authorizationString = SignatureUtil.generateAuthorizationString(dynamicRequest, authorizationId);
-                ((ObjectNode) auth).put("authorizationString", authorizationString);
-                LoggerUtil.info("Updated Request Body after adding authorizationString for authorizationId: {}: \n{}",
-                        authorizationId, dynamicRequest.toPrettyString());
-                Allure.addAttachment("Updated Request Body after adding authorizationString for authorizationId: " + authorizationId,
-                        "application/json", dynamicRequest.toPrettyString());
-            } catch (Exception e) {
-                LoggerUtil.error("Failed to generate authorizationString for authorizationId: {}", authorizationId, e);
-                Allure.step("Failed to generate authorizationString: " + e.getMessage(), io.qameta.allure.model.Status.FAILED);
-                throw new RuntimeException("Failed to generate authorizationString", e);
+    private void runTestCase(Map<String, Object> tc) throws Exception {
+        String requestTemplateKey = (String) tc.get("requestTemplateKey");
+        Integer expectedStatusCode = (Integer) tc.get("expectedStatusCode");
+        String expectedField = (String) tc.get("expectedField");
+        String expectedValue = (String) tc.get("expectedValue");
+        String apiType = (String) tc.get("apiType");
+
+        // Thêm log để kiểm tra apiType
+        LoggerUtil.info("Processing test case {} with apiType: {}", tc.get("testCaseId"), apiType);
+        Allure.step("Test Case ID: " + tc.get("testCaseId"));
+        Allure.step("Description: " + tc.get("description"));
+
+        Map<String, String> dynamicValues = new HashMap<>();
+        Response response;
+
+        if ("CREATE_AND_QUERY".equals(apiType)) {
+            ObjectNode dynamicRequest = TestUtils.createDynamicRequest(requestTemplateKey, dynamicValues);
+            String traceNumber = TestUtils.generateTraceNumber(dynamicRequest, dynamicValues);
+            TestUtils.updateRequestBody(dynamicRequest);
+
+            Allure.addAttachment("Dynamic requestTrace", dynamicValues.get("requestTrace"));
+            Allure.addAttachment("Dynamic requestDateTime", dynamicValues.get("requestDateTime"));
+            Allure.addAttachment("Dynamic transactionTraceNumber", traceNumber);
+
+            Allure.step("Step 1: Sending create payment order request");
+            response = TestUtils.callApiAndLogResponse(
+                    "Step 1: Sending create payment order request",
+                    dynamicRequest,
+                    tokens.execute(t -> PaymentOrderAPI.createPaymentOrder(t, dynamicRequest))
+            );
+
+            response.then().statusCode(200);
+
+            String status = ResponseJson.text(response, "responseData.transaction.status");
+            assertThat("Payment order status should be ORIG", status, equalTo("ORIG"));
+
+            String createdTraceNumber = ResponseJson.text(response, "responseData.transaction.transactionTraceNumber");
+            if (createdTraceNumber == null) {
+                throw new RuntimeException("transactionTraceNumber not found in create payment order response");
+            }
+            Allure.addAttachment("Created transactionTraceNumber", createdTraceNumber);
+
+            String fromDate = (String) tc.get("fromDate");
+            String toDate = (String) tc.get("toDate");
+            if (fromDate == null || fromDate.trim().isEmpty()) {
+                fromDate = TestUtils.getDefaultFromDate();
+                LoggerUtil.info("fromDate not specified in test case, using current date: {}", fromDate);
+            }
+            if (toDate == null || toDate.trim().isEmpty()) {
+                toDate = TestUtils.getDefaultToDate();
+                LoggerUtil.info("toDate not specified in test case, using current date: {}", toDate);
+            }
+
+            dynamicValues.put("transactionTraceNumber", createdTraceNumber);
+            Allure.addAttachment("Query transactionTraceNumber", createdTraceNumber);
+            Allure.addAttachment("Query fromDate", fromDate);
+            Allure.addAttachment("Query toDate", toDate);
+
+            Allure.step("Step 2: Polling transaction history with created trace until terminal status");
+            response = TestUtils.callApiAndLogResponse(
+                    "Step 2: Polling transaction history with created trace",
+                    "None (GET request)",
+                    StatusPoller.pollTransaction(createdTraceNumber, fromDate, toDate, PollingPolicy.fromSystemProperties()).join()
+            );
+
+            response.then().statusCode(200);
+
+            QueryResponseParser.QueryResult<QueryResponseParser.Transaction> history = QueryResponseParser.parseTransactionQuery(response);
+            if (history.isEmpty()) {
+                throw new RuntimeException("No transactions found in history for traceNumber: " + createdTraceNumber);
+            }
+
+            String queryStatus = history.first().getStatus();
+            assertThat("Transaction history status should be TRAN", queryStatus, equalTo("TRAN"));
+        } else if ("CREATE_AND_QUERY_BULK".equals(apiType)) {
+            LoggerUtil.info("Executing CREATE_AND_QUERY_BULK for test case: {}", tc.get("testCaseId"));
+            response = bulkQueryHandler.execute(tc, dynamicValues);
+            bulkQueryHandler.validateResponse(response, tc);
+            return;
+        } else if ("BULK_TRANSACTION".equals(apiType)) {
+            response = bulkHandler.execute(tc, dynamicValues);
+            bulkHandler.validateResponse(response, tc);
+            return;
+        } else if ("GET_TRANSACTION".equals(apiType)) {
+            String transactionTraceNumber = (String) tc.get("transactionTraceNumber");
+            String fromDate = (String) tc.get("fromDate");
+            String toDate = (String) tc.get("toDate");
+            if (fromDate == null || fromDate.trim().isEmpty()) {
+                fromDate = TestUtils.getDefaultFromDate();
+                LoggerUtil.info("fromDate not specified in test case, using current date: {}", fromDate);
+            }
+            if (toDate == null || toDate.trim().isEmpty()) {
+                toDate = TestUtils.getDefaultToDate();
+                LoggerUtil.info("toDate not specified in test case, using current date: {}", toDate);
+            }
+
+            dynamicValues.put("transactionTraceNumber", transactionTraceNumber);
+            Allure.addAttachment("Dynamic transactionTraceNumber", transactionTraceNumber);
+            Allure.addAttachment("Dynamic fromDate", fromDate);
+            Allure.addAttachment("Dynamic toDate", toDate);
+
+            String queryFromDate = fromDate;
+            String queryToDate = toDate;
+            response = TestUtils.callApiAndLogResponse(
+                    "Sending transaction history request",
+                    "None (GET request)",
+                    tokens.execute(t -> TransactionTraceAPI.getTransactionHistory(t, transactionTraceNumber, queryFromDate, queryToDate))
+            );
+        } else if ("GET_BULK_TRANSACTION".equals(apiType)) {
+            String bulkTraceNumber = (String) tc.get("bulkTraceNumber");
+            if (bulkTraceNumber == null || bulkTraceNumber.trim().isEmpty()) {
+                throw new IllegalArgumentException("bulkTraceNumber is required for GET_BULK_TRANSACTION");
             }
-        });
+
+            String fromDate = (String) tc.get("fromDate");
+            String toDate = (String) tc.get("toDate");
+            if (fromDate == null || fromDate.trim().isEmpty()) {
+                fromDate = TestUtils.getDefaultFromDate();
+                LoggerUtil.info("fromDate not specified in test case, using current date: {}", fromDate);
+            }
+            if (toDate == null || toDate.trim().isEmpty()) {
+                toDate = TestUtils.getDefaultToDate();
+                LoggerUtil.info("toDate not specified in test case, using current date: {}", toDate);
+            }
+
+            dynamicValues.put("bulkTraceNumber", bulkTraceNumber);
+            Allure.addAttachment("Dynamic bulkTraceNumber", bulkTraceNumber);
+            Allure.addAttachment("Dynamic fromDate", fromDate);
+            Allure.addAttachment("Dynamic toDate", toDate);
+
+            String queryFromDate = fromDate;
+            String queryToDate = toDate;
+            response = TestUtils.callApiAndLogResponse(
+                    "Sending bulk transaction query request",
+                    "None (GET request)",
+                    tokens.execute(t -> BulkTransactionQueryAPI.getBulkTransaction(t, bulkTraceNumber, queryFromDate, queryToDate))
+            );
+
+            QueryResponseParser.QueryResult<QueryResponseParser.BulkTransaction> bulkQuery = QueryResponseParser.parseBulkQuery(response);
+            if (bulkQuery.isEmpty()) {
+                throw new RuntimeException("No bulk transactions found in query response for bulkTraceNumber: " +
+                        bulkTraceNumber + " with fromDate: " + fromDate + " and toDate: " + toDate);
+            }
+
+            String bulkStatus = bulkQuery.first().getBulkStatus();
+            if (bulkStatus == null) {
+                throw new RuntimeException("bulkStatus not found in query bulk transaction response");
+            }
+            assertThat("Bulk transaction status should be COMP", bulkStatus, equalTo("COMP"));
+        } else {
+            if (requestTemplateKey == null || requestTemplateKey.trim().isEmpty()) {
+                throw new IllegalArgumentException("requestTemplateKey is required for API type: " + apiType);
+            }
+            // Không gọi API bên trong computeIfAbsent: ConcurrentHashMap giữ lock của bin trong suốt lần gọi
+            String cacheKey = requestTemplateKey + "_" + tc.get("testCaseId");
+            response = responseCache.get(cacheKey);
+            if (response == null) {
+                Response sent = sendTemplateRequest(requestTemplateKey, tc, dynamicValues);
+                Response cached = responseCache.putIfAbsent(cacheKey, sent);
+                response = cached != null ? cached : sent;
+            }
+        }
+
+        response.then().statusCode(expectedStatusCode);
+        TestUtils.validateExpectedField(response, tc, dynamicValues);
+    }
+
+    private Response sendTemplateRequest(String requestTemplateKey, Map<String, Object> tc, Map<String, String> dynamicValues) {
+        try {
+            return postPaymentHandler.execute(tc, dynamicValues);
+        } catch (Exception e) {
+            LoggerUtil.error("Failed to send request for {}: {}", requestTemplateKey, e.getMessage(), e);
+            Allure.step("Failed to send request: " + e.getMessage(), io.qameta.allure.model.Status.FAILED);
+            throw new RuntimeException("Failed to send request for " + requestTemplateKey, e);
+        }
     }
 }
\ No newline at end of file
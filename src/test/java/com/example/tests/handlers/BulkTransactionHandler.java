@@ -1,9 +1,9 @@
 package com.example.tests.handlers;
 
 import com.example.api.BulkTransactionCreateAPI;
-import com.example.api.TokenAPI;
+import com.example.api.ResponseJson;
+import com.example.api.TokenManager;
 import com.example.tests.utils.TestUtils;
-import com.example.utils.LoggerUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.qameta.allure.Allure;
@@ -19,13 +19,12 @@ import static org.hamcrest.Matchers.equalTo;
 
 @Component("BULK_TRANSACTION")
 public class BulkTransactionHandler implements ApiTestHandler {
-    private final String token;
+    private final TokenManager tokens;
     private final ObjectMapper mapper;
 
     @Autowired
     public BulkTransactionHandler(ObjectMapper mapper) {
-        this.token = TokenAPI.getAccessToken();
-        LoggerUtil.info("Access token in BulkTransactionHandler: {}", token);
+        this.tokens = TokenManager.getInstance();
         this.mapper = mapper;
     }
 
@@ -44,12 +43,12 @@ public class BulkTransactionHandler implements ApiTestHandler {
         Allure.addAttachment("Dynamic bulkTraceNumber", bulkTraceNumber);
         Response createResponse = TestUtils.callApiAndLogResponse(
                 "Step 1: Sending bulk transaction create request",
-                dynamicRequest.toPrettyString(),
-                BulkTransactionCreateAPI.createBulkTransaction(token, dynamicRequest)
+                dynamicRequest,
+                tokens.execute(t -> BulkTransactionCreateAPI.createBulkTransaction(t, dynamicRequest))
         );
 
         createResponse.then().statusCode(200);
-        String createStatus = createResponse.jsonPath().getString("responseData.bulkTransaction.bulkStatus");
+        String createStatus = ResponseJson.text(createResponse, "responseData.bulkTransaction.bulkStatus");
         if (createStatus == null) {
             throw new RuntimeException("bulkStatus not found in create bulk transaction response");
         }
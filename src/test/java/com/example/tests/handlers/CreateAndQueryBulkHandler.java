@@ -1,10 +1,14 @@
 package com.example.tests.handlers;
 
 import com.example.api.BulkTransactionCreateAPI;
-import com.example.api.BulkTransactionQueryAPI;
-import com.example.api.TokenAPI;
+import com.example.api.PollingPolicy;
+import com.example.api.QueryResponseParser;
+import com.example.api.ResponseJson;
+import com.example.api.StatusPoller;
+import com.example.api.TokenManager;
 import com.example.tests.utils.TestUtils;
 import com.example.utils.LoggerUtil;
+import com.example.utils.TraceNumberGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.qameta.allure.Allure;
@@ -13,7 +17,7 @@ import io.restassured.response.Response;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
+import java.time.Duration;
 import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -25,13 +29,12 @@ public class CreateAndQueryBulkHandler implements ApiTestHandler {
     private static final long MIN_WAIT_TIME_SECONDS = 5;
     private static final long MAX_WAIT_TIME_SECONDS = 60;
 
-    private final String token;
+    private final TokenManager tokens;
     private final ObjectMapper mapper;
 
     @Autowired
     public CreateAndQueryBulkHandler(ObjectMapper mapper) {
-        this.token = TokenAPI.getAccessToken();
-        LoggerUtil.info("Access token in CreateAndQueryBulkHandler: {}", token);
+        this.tokens = TokenManager.getInstance();
         this.mapper = mapper;
     }
 
@@ -42,7 +45,7 @@ public class CreateAndQueryBulkHandler implements ApiTestHandler {
         ObjectNode dynamicRequest = TestUtils.createDynamicRequest(requestTemplateKey, dynamicValues);
 
         // Tạo bulkTraceNumber động
-        String bulkTraceNumber = "pika" + TestUtils.generateRandomString(10);
+        String bulkTraceNumber = TraceNumberGenerator.getDefault().nextBulk();
         LoggerUtil.info("Generated dynamic bulkTraceNumber: {}", bulkTraceNumber);
         ((ObjectNode) dynamicRequest.path("requestParameters").path("data"))
                 .put("bulkTraceNumber", bulkTraceNumber);
@@ -54,23 +57,21 @@ public class CreateAndQueryBulkHandler implements ApiTestHandler {
         Allure.addAttachment("Dynamic bulkTraceNumber", bulkTraceNumber);
         Response createResponse = TestUtils.callApiAndLogResponse(
                 "Step 1: Sending bulk transaction create request",
-                dynamicRequest.toPrettyString(),
-                BulkTransactionCreateAPI.createBulkTransaction(token, dynamicRequest)
+                dynamicRequest,
+                tokens.execute(t -> BulkTransactionCreateAPI.createBulkTransaction(t, dynamicRequest))
         );
 
         // Kiểm tra response từ bước create
         createResponse.then().statusCode(200);
-        LoggerUtil.info("Create Response Body: \n{}", createResponse.getBody().asPrettyString());
-        Allure.addAttachment("Create Response Body", "application/json", createResponse.getBody().asPrettyString());
 
-        String createStatus = createResponse.jsonPath().getString("responseData.bulkTransaction.bulkStatus");
+        String createStatus = ResponseJson.text(createResponse, "responseData.bulkTransaction.bulkStatus");
         if (createStatus == null) {
             throw new RuntimeException("bulkStatus not found in create bulk transaction response");
         }
         assertThat("Bulk transaction create status should be ORIG", createStatus, equalTo("ORIG"));
 
         // Lấy bulkTraceNumber từ response
-        String createdBulkTraceNumber = createResponse.jsonPath().getString("responseData.bulkTransaction.bulkTraceNumber");
+        String createdBulkTraceNumber = ResponseJson.text(createResponse, "responseData.bulkTransaction.bulkTraceNumber");
         if (createdBulkTraceNumber == null) {
             throw new RuntimeException("bulkTraceNumber not found in create response");
         }
@@ -79,7 +80,7 @@ public class CreateAndQueryBulkHandler implements ApiTestHandler {
         // Sử dụng bulkTraceNumber từ response thay vì giá trị đã tạo
         bulkTraceNumber = createdBulkTraceNumber;
 
-        // Lấy thời gian chờ từ test case
+        // waitTime trong test case là thời gian poll tối đa trước khi bỏ cuộc
         Long waitTimeSeconds = testCase.get("waitTime") != null ? ((Number) testCase.get("waitTime")).longValue() : DEFAULT_WAIT_TIME_SECONDS;
 
         // Kiểm tra giá trị waitTime hợp lệ
@@ -91,11 +92,6 @@ public class CreateAndQueryBulkHandler implements ApiTestHandler {
             waitTimeSeconds = MAX_WAIT_TIME_SECONDS;
         }
 
-        long waitTimeMillis = waitTimeSeconds * 1000;
-        LoggerUtil.info("Waiting {} seconds ({} ms) before querying bulk transaction", waitTimeSeconds, waitTimeMillis);
-        Allure.step("Waiting " + waitTimeSeconds + " seconds before querying bulk transaction");
-        Thread.sleep(waitTimeMillis);
-
         String fromDate = (String) testCase.get("fromDate");
         String toDate = (String) testCase.get("toDate");
         if (fromDate == null || fromDate.trim().isEmpty()) {
@@ -120,7 +116,10 @@ public class CreateAndQueryBulkHandler implements ApiTestHandler {
                 "bulkTraceNumber: " + bulkTraceNumber + "\nfromDate: " + fromDate + "\ntoDate: " + toDate);
         Allure.addAttachment("Bulk Transaction Query Request Body", "None (GET request)");
 
-        Response response = BulkTransactionQueryAPI.getBulkTransaction(token, bulkTraceNumber, fromDate, toDate);
+        LoggerUtil.info("Polling bulk transaction for up to {} seconds until terminal status", waitTimeSeconds);
+        Allure.step("Polling bulk transaction for up to " + waitTimeSeconds + " seconds until terminal status");
+        PollingPolicy policy = PollingPolicy.fromSystemProperties().withTimeout(Duration.ofSeconds(waitTimeSeconds));
+        Response response = StatusPoller.pollBulkTransaction(bulkTraceNumber, fromDate, toDate, policy).join();
         return TestUtils.callApiAndLogResponse(
                 "Step 2: Querying bulk transaction with created bulkTraceNumber",
                 "None (GET request)",
@@ -133,20 +132,18 @@ public class CreateAndQueryBulkHandler implements ApiTestHandler {
     public void validateResponse(Response response, Map<String, Object> testCase) {
         response.then().statusCode((Integer) testCase.get("expectedStatusCode"));
 
-        LoggerUtil.info("Query Response Body: \n{}", response.getBody().asPrettyString());
-        Allure.addAttachment("Query Response Body", "application/json", response.getBody().asPrettyString());
 
         String bulkTraceNumber = (String) testCase.get("bulkTraceNumber");
         if (bulkTraceNumber == null) {
             throw new IllegalStateException("bulkTraceNumber not found in test case during validation");
         }
 
-        List<Map<String, Object>> bulkTransactions = response.jsonPath().getList("responseData.bulkTransactions");
-        if (bulkTransactions == null || bulkTransactions.isEmpty()) {
+        QueryResponseParser.QueryResult<QueryResponseParser.BulkTransaction> result = QueryResponseParser.parseBulkQuery(response);
+        if (result.isEmpty()) {
             throw new RuntimeException("No bulk transactions found in query response for bulkTraceNumber: " + bulkTraceNumber);
         }
 
-        String queryStatus = response.jsonPath().getString("responseData.bulkTransactions[0].bulkStatus");
+        String queryStatus = result.first().getBulkStatus();
         if (queryStatus == null) {
             throw new RuntimeException("bulkStatus not found in query bulk transaction response");
         }
@@ -1,8 +1,11 @@
 package com.example.tests.handlers;
 
 import com.example.api.PaymentOrderAPI;
-import com.example.api.TokenAPI;
-import com.example.api.TransactionTraceAPI;
+import com.example.api.PollingPolicy;
+import com.example.api.QueryResponseParser;
+import com.example.api.ResponseJson;
+import com.example.api.StatusPoller;
+import com.example.api.TokenManager;
 import com.example.tests.utils.TestUtils;
 import com.example.utils.LoggerUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -13,7 +16,7 @@ import io.restassured.response.Response;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
+import java.time.Duration;
 import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -25,13 +28,12 @@ public class CreateAndQueryHandler implements ApiTestHandler {
     private static final long MIN_WAIT_TIME_SECONDS = 5;
     private static final long MAX_WAIT_TIME_SECONDS = 60;
 
-    private final String token;
+    private final TokenManager tokens;
     private final ObjectMapper mapper;
 
     @Autowired
     public CreateAndQueryHandler(ObjectMapper mapper) {
-        this.token = TokenAPI.getAccessToken();
-        LoggerUtil.info("Access token in CreateAndQueryHandler: {}", token);
+        this.tokens = TokenManager.getInstance();
         this.mapper = mapper;
     }
 
@@ -55,29 +57,27 @@ public class CreateAndQueryHandler implements ApiTestHandler {
         Allure.addAttachment("Dynamic transactionTraceNumber", traceNumber);
         Response createResponse = TestUtils.callApiAndLogResponse(
                 "Step 1: Sending create payment order request",
-                dynamicRequest.toPrettyString(),
-                PaymentOrderAPI.createPaymentOrder(token, dynamicRequest)
+                dynamicRequest,
+                tokens.execute(t -> PaymentOrderAPI.createPaymentOrder(t, dynamicRequest))
         );
 
         // Kiểm tra response từ bước create
         createResponse.then().statusCode(200);
-        LoggerUtil.info("Create Response Body: \n{}", createResponse.getBody().asPrettyString());
-        Allure.addAttachment("Create Response Body", "application/json", createResponse.getBody().asPrettyString());
 
-        String status = createResponse.jsonPath().getString("responseData.transaction.status");
+        String status = ResponseJson.text(createResponse, "responseData.transaction.status");
         if (status == null) {
             throw new RuntimeException("status not found in create payment order response");
         }
         assertThat("Payment order status should be ORIG", status, equalTo("ORIG"));
 
-        String createdTraceNumber = createResponse.jsonPath().getString("responseData.transaction.transactionTraceNumber");
+        String createdTraceNumber = ResponseJson.text(createResponse, "responseData.transaction.transactionTraceNumber");
         if (createdTraceNumber == null) {
             throw new RuntimeException("transactionTraceNumber not found in create payment order response");
         }
         LoggerUtil.info("Received transactionTraceNumber from create response: {}", createdTraceNumber);
         Allure.addAttachment("Created transactionTraceNumber", createdTraceNumber);
 
-        // Lấy thời gian chờ từ test case
+        // waitTime trong test case là thời gian poll tối đa trước khi bỏ cuộc
         Long waitTimeSeconds = testCase.get("waitTime") != null ? ((Number) testCase.get("waitTime")).longValue() : DEFAULT_WAIT_TIME_SECONDS;
 
         // Kiểm tra giá trị waitTime hợp lệ
@@ -89,11 +89,6 @@ public class CreateAndQueryHandler implements ApiTestHandler {
             waitTimeSeconds = MAX_WAIT_TIME_SECONDS;
         }
 
-        long waitTimeMillis = waitTimeSeconds * 1000;
-        LoggerUtil.info("Waiting {} seconds ({} ms) before querying transaction history", waitTimeSeconds, waitTimeMillis);
-        Allure.step("Waiting " + waitTimeSeconds + " seconds before querying transaction history");
-        Thread.sleep(waitTimeMillis);
-
         String fromDate = TestUtils.getDefaultFromDate();
         String toDate = TestUtils.getDefaultToDate();
         dynamicValues.put("transactionTraceNumber", createdTraceNumber);
@@ -109,7 +104,10 @@ public class CreateAndQueryHandler implements ApiTestHandler {
                 "transactionTraceNumber: " + createdTraceNumber + "\nfromDate: " + fromDate + "\ntoDate: " + toDate);
         Allure.addAttachment("Transaction History Request Body", "None (GET request)");
 
-        Response response = TransactionTraceAPI.getTransactionHistory(token, createdTraceNumber, fromDate, toDate);
+        LoggerUtil.info("Polling transaction history for up to {} seconds until terminal status", waitTimeSeconds);
+        Allure.step("Polling transaction history for up to " + waitTimeSeconds + " seconds until terminal status");
+        PollingPolicy policy = PollingPolicy.fromSystemProperties().withTimeout(Duration.ofSeconds(waitTimeSeconds));
+        Response response = StatusPoller.pollTransaction(createdTraceNumber, fromDate, toDate, policy).join();
         return TestUtils.callApiAndLogResponse(
                 "Step 2: Querying transaction history with created trace",
                 "None (GET request)",
@@ -122,20 +120,18 @@ public class CreateAndQueryHandler implements ApiTestHandler {
     public void validateResponse(Response response, Map<String, Object> testCase) {
         response.then().statusCode((Integer) testCase.get("expectedStatusCode"));
 
-        LoggerUtil.info("Query Response Body: \n{}", response.getBody().asPrettyString());
-        Allure.addAttachment("Query Response Body", "application/json", response.getBody().asPrettyString());
 
         String transactionTraceNumber = (String) testCase.get("transactionTraceNumber");
         if (transactionTraceNumber == null) {
             throw new IllegalStateException("transactionTraceNumber not found in test case during validation");
         }
 
-        List<Map<String, Object>> transactions = response.jsonPath().getList("responseData.transactions");
-        if (transactions == null || transactions.isEmpty()) {
+        QueryResponseParser.QueryResult<QueryResponseParser.Transaction> result = QueryResponseParser.parseTransactionQuery(response);
+        if (result.isEmpty()) {
             throw new RuntimeException("No transactions found in history for traceNumber: " + transactionTraceNumber);
         }
 
-        String queryStatus = response.jsonPath().getString("responseData.transactions[0].status");
+        String queryStatus = result.first().getStatus();
         if (queryStatus == null) {
             throw new RuntimeException("status not found in query transaction history response");
         }
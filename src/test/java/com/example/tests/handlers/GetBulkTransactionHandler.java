@@ -1,7 +1,7 @@
 package com.example.tests.handlers;
 
 import com.example.api.BulkTransactionQueryAPI;
-import com.example.api.TokenAPI;
+import com.example.api.TokenManager;
 import com.example.tests.utils.TestUtils;
 import com.example.utils.LoggerUtil;
 import io.qameta.allure.Allure;
@@ -13,11 +13,10 @@ import java.util.Map;
 
 @Component("GET_BULK_TRANSACTION")
 public class GetBulkTransactionHandler implements ApiTestHandler {
-    private final String token;
+    private final TokenManager tokens;
 
     public GetBulkTransactionHandler() {
-        this.token = TokenAPI.getAccessToken();
-        LoggerUtil.info("Access token in GetBulkTransactionHandler: {}", token);
+        this.tokens = TokenManager.getInstance();
     }
 
     @Override
@@ -48,7 +47,9 @@ public class GetBulkTransactionHandler implements ApiTestHandler {
                 "bulkTraceNumber: " + bulkTraceNumber + "\nfromDate: " + fromDate + "\ntoDate: " + toDate);
         Allure.addAttachment("Bulk Transaction History Request Body", "None (GET request)");
 
-        Response response = BulkTransactionQueryAPI.getBulkTransaction(token, bulkTraceNumber, fromDate, toDate);
+        String queryFromDate = fromDate;
+        String queryToDate = toDate;
+        Response response = tokens.execute(t -> BulkTransactionQueryAPI.getBulkTransaction(t, bulkTraceNumber, queryFromDate, queryToDate));
         return TestUtils.callApiAndLogResponse(
                 "Querying bulk transaction",
                 "None (GET request)",
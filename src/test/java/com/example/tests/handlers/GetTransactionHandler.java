@@ -1,6 +1,6 @@
 package com.example.tests.handlers;
 
-import com.example.api.TokenAPI;
+import com.example.api.TokenManager;
 import com.example.api.TransactionTraceAPI;
 import com.example.tests.utils.TestUtils;
 import com.example.utils.LoggerUtil;
@@ -13,11 +13,10 @@ import java.util.Map;
 
 @Component("GET_TRANSACTION")
 public class GetTransactionHandler implements ApiTestHandler {
-    private final String token;
+    private final TokenManager tokens;
 
     public GetTransactionHandler() {
-        this.token = TokenAPI.getAccessToken();
-        LoggerUtil.info("Access token in GetTransactionHandler: {}", token);
+        this.tokens = TokenManager.getInstance();
     }
 
     @Override
@@ -39,7 +38,7 @@ public class GetTransactionHandler implements ApiTestHandler {
                 "transactionTraceNumber: " + transactionTraceNumber + "\nfromDate: " + fromDate + "\ntoDate: " + toDate);
         Allure.addAttachment("Transaction History Request Body", "None (GET request)");
 
-        Response response = TransactionTraceAPI.getTransactionHistory(token, transactionTraceNumber, fromDate, toDate);
+        Response response = tokens.execute(t -> TransactionTraceAPI.getTransactionHistory(t, transactionTraceNumber, fromDate, toDate));
         return TestUtils.callApiAndLogResponse(
                 "Querying transaction history",
                 "None (GET request)",
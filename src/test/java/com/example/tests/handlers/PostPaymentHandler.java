@@ -0,0 +1,55 @@
+package com.example.tests.handlers;
+
+import com.example.api.BulkTransactionCreateAPI;
+import com.example.api.PaymentOrderAPI;
+import com.example.api.TokenManager;
+import com.example.tests.utils.TestUtils;
+import com.example.utils.LoggerUtil;
+import com.example.utils.TemplateRegistry;
+import io.qameta.allure.Step;
+import io.restassured.response.Response;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component("POST_PAYMENT")
+public class PostPaymentHandler implements ApiTestHandler {
+    private final TokenManager tokens;
+
+    public PostPaymentHandler() {
+        this.tokens = TokenManager.getInstance();
+    }
+
+    @Override
+    @Step("Execute POST_PAYMENT test case")
+    public Response execute(Map<String, Object> testCase, Map<String, String> dynamicValues) throws Exception {
+        String requestTemplateKey = (String) testCase.get("requestTemplateKey");
+        if (requestTemplateKey == null || requestTemplateKey.trim().isEmpty()) {
+            throw new IllegalArgumentException("requestTemplateKey is required for POST_PAYMENT");
+        }
+
+        // Body dựng và ký từ template compile sẵn, gửi nguyên byte qua overload byte[] của API
+        byte[] dynamicRequest = TestUtils.renderDynamicRequest(requestTemplateKey, dynamicValues);
+        if (TemplateRegistry.getDefault().compiled(requestTemplateKey).isBulk()) {
+            LoggerUtil.info("Detected bulk transaction template: {}", requestTemplateKey);
+            return TestUtils.callApiAndLogResponse(
+                    "Sending bulk transaction request for " + requestTemplateKey,
+                    dynamicRequest,
+                    tokens.execute(t -> BulkTransactionCreateAPI.createBulkTransaction(t, dynamicRequest))
+            );
+        }
+
+        LoggerUtil.info("Detected single transaction template: {}", requestTemplateKey);
+        return TestUtils.callApiAndLogResponse(
+                "Sending request for " + requestTemplateKey,
+                dynamicRequest,
+                tokens.execute(t -> PaymentOrderAPI.createPaymentOrder(t, dynamicRequest))
+        );
+    }
+
+    @Override
+    @Step("Validate response for POST_PAYMENT test case")
+    public void validateResponse(Response response, Map<String, Object> testCase) {
+        response.then().statusCode((Integer) testCase.get("expectedStatusCode"));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.tests.utils;
+
+import com.example.utils.LoggerUtil;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Giới hạn số test chạy đồng thời theo apiType khi bật JUnit parallel execution, để các luồng bulk
+ * không dồn tải lên sandbox. Giới hạn đọc từ system property concurrency.&lt;apiType&gt;
+ * (ví dụ -Dconcurrency.BULK_TRANSACTION=1), mặc định concurrency.default.
+ */
+public class ApiTypeLimiter {
+    private static final Map<String, Integer> DEFAULT_LIMITS = Map.of(
+            "CREATE_AND_QUERY_BULK", 1,
+            "BULK_TRANSACTION", 2
+    );
+    private static final int DEFAULT_LIMIT = Integer.getInteger("concurrency.default", 4);
+    private static final Map<String, Semaphore> PERMITS = new ConcurrentHashMap<>();
+
+    public static void run(String apiType, Executable body) throws Throwable {
+        String key = apiType == null ? "default" : apiType;
+        Semaphore permits = PERMITS.computeIfAbsent(key, k -> new Semaphore(limitFor(k), true));
+        acquire(permits);
+        try {
+            body.execute();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public static int limitFor(String apiType) {
+        Integer limit = Integer.getInteger("concurrency." + apiType, DEFAULT_LIMITS.getOrDefault(apiType, DEFAULT_LIMIT));
+        if (limit < 1) {
+            throw new IllegalArgumentException("concurrency." + apiType + " must be at least 1: " + limit);
+        }
+        return limit;
+    }
+
+    /**
+     * Chờ permit qua ForkJoinPool.managedBlock để pool của JUnit bù thêm worker thay vì đứng yên
+     * khi nhiều test cùng chờ một apiType.
+     */
+    static void acquire(Semaphore permits) throws InterruptedException {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        LoggerUtil.info("Waiting for a concurrency permit ({} available)", permits.availablePermits());
+        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+            private boolean acquired;
+
+            @Override
+            public boolean block() throws InterruptedException {
+                if (!acquired) {
+                    permits.acquire();
+                    acquired = true;
+                }
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable() {
+                if (!acquired) {
+                    acquired = permits.tryAcquire();
+                }
+                return acquired;
+            }
+        });
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.tests.utils;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Back-pressure cho @TestFactory chạy CONCURRENT: JUnit kéo stream và submit từng DynamicTest ngay, nên không chặn
+ * thì cả catalog nằm trong hàng đợi của pool. Mỗi test giữ một permit từ lúc được sinh tới khi JUnit báo chạy xong
+ * hoặc bị skip. Test bị JUnit lọc bỏ (chọn theo unique id) không bao giờ được đăng ký, nên permit của nó được trả ở
+ * lần kéo kế tiếp hoặc khi stream đóng. Kích thước cửa sổ đọc từ -Dtest.window (mặc định 256).
+ * <p>
+ * Được đăng ký làm TestExecutionListener qua META-INF/services; nếu listener không được nạp thì mọi test bị coi
+ * là đã lọc và cửa sổ không chặn gì, không bao giờ treo.
+ */
+public class DynamicTestWindow implements TestExecutionListener {
+    private static final int SIZE = Integer.getInteger("test.window", 256);
+    private static final Semaphore PERMITS = new Semaphore(SIZE, true);
+    // Unique id của các test đã được JUnit đăng ký và đang giữ permit
+    private static final Set<String> HELD = ConcurrentHashMap.newKeySet();
+    // Test vừa sinh trên thread của factory mà JUnit chưa đăng ký
+    private static final ThreadLocal<Boolean> UNREGISTERED = ThreadLocal.withInitial(() -> false);
+
+    static {
+        if (SIZE < 1) {
+            throw new IllegalArgumentException("test.window must be at least 1: " + SIZE);
+        }
+    }
+
+    public static Stream<DynamicTest> of(Stream<DynamicTest> tests) {
+        return tests.map(DynamicTestWindow::admit).onClose(DynamicTestWindow::settle);
+    }
+
+    private static DynamicTest admit(DynamicTest test) {
+        settle();
+        try {
+            ApiTypeLimiter.acquire(PERMITS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a test window permit", e);
+        }
+        UNREGISTERED.set(true);
+        return test;
+    }
+
+    // JUnit đăng ký test ngay trong lần kéo sinh ra nó; tới lần kéo sau vẫn chưa đăng ký nghĩa là test đã bị lọc
+    private static void settle() {
+        if (UNREGISTERED.get()) {
+            UNREGISTERED.set(false);
+            PERMITS.release();
+        }
+    }
+
+    @Override
+    public void dynamicTestRegistered(TestIdentifier testIdentifier) {
+        if (testIdentifier.isTest() && UNREGISTERED.get()) {
+            UNREGISTERED.set(false);
+            HELD.add(testIdentifier.getUniqueId());
+        }
+    }
+
+    @Override
+    public void executionSkipped(TestIdentifier testIdentifier, String reason) {
+        release(testIdentifier);
+    }
+
+    @Override
+    public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
+        release(testIdentifier);
+    }
+
+    private static void release(TestIdentifier testIdentifier) {
+        if (HELD.remove(testIdentifier.getUniqueId())) {
+            PERMITS.release();
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.tests.utils;
 
-import com.example.utils.FileUtil;
+import com.example.api.PayloadCapture;
+import com.example.api.ResponseJson;
+import com.example.utils.CompiledTemplate;
 import com.example.utils.LoggerUtil;
+import com.example.utils.Metrics;
 import com.example.utils.SignatureUtil;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.utils.TemplateRegistry;
+import com.example.utils.TraceNumberGenerator;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.qameta.allure.Allure;
 import io.qameta.allure.Step;
@@ -12,22 +16,21 @@ import io.restassured.response.Response;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 import java.util.Map;
-import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 
 public class TestUtils {
-    private static final ObjectMapper mapper = new ObjectMapper();
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
     @Step("Create dynamic request for template: {requestTemplateKey}")
     public static ObjectNode createDynamicRequest(String requestTemplateKey, Map<String, String> dynamicValues) throws Exception {
-        Object requestBody = FileUtil.getRequestTemplate(requestTemplateKey);
-        ObjectNode dynamicRequest = mapper.valueToTree(requestBody).deepCopy();
+        long start = System.nanoTime();
+        // Chỉ các node chứa field được patch là bản sao riêng, phần còn lại dùng chung với template
+        ObjectNode dynamicRequest = TemplateRegistry.getDefault().newRequest(requestTemplateKey);
 
         String dynamicRequestTrace = UUID.randomUUID().toString();
         dynamicRequest.put("requestTrace", dynamicRequestTrace);
@@ -36,6 +39,7 @@ public class TestUtils {
         String dynamicTimestamp = OffsetDateTime.now().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
         dynamicRequest.put("requestDateTime", dynamicTimestamp);
         dynamicValues.put("requestDateTime", dynamicTimestamp);
+        Metrics.recordOperation(Metrics.OPERATION_TEMPLATE_BUILD, System.nanoTime() - start);
 
         Allure.addAttachment("Dynamic requestTrace", dynamicRequestTrace);
         Allure.addAttachment("Dynamic requestDateTime", dynamicTimestamp);
@@ -43,6 +47,45 @@ public class TestUtils {
         return dynamicRequest;
     }
 
+    /**
+     * Body đã ký dựng từ template compile sẵn ({@link TemplateRegistry#compiled}), không qua cây Jackson.
+     * dynamicValues nhận cùng các key như {@link #createDynamicRequest}, {@link #generateTraceNumber} và
+     * {@link #updateTransactions} để validateExpectedField so sánh được như đường dựng bằng cây.
+     */
+    @Step("Render signed request from compiled template: {requestTemplateKey}")
+    public static byte[] renderDynamicRequest(String requestTemplateKey, Map<String, String> dynamicValues) {
+        CompiledTemplate template = TemplateRegistry.getDefault().compiled(requestTemplateKey);
+        TraceNumberGenerator traceNumbers = TraceNumberGenerator.getDefault();
+
+        String dynamicRequestTrace = UUID.randomUUID().toString();
+        String dynamicTimestamp = OffsetDateTime.now().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+        CompiledTemplate.Values values = template.newValues()
+                .requestTrace(dynamicRequestTrace)
+                .requestDateTime(dynamicTimestamp);
+        dynamicValues.put("requestTrace", dynamicRequestTrace);
+        dynamicValues.put("requestDateTime", dynamicTimestamp);
+
+        if (template.isBulk()) {
+            String bulkTraceNumber = traceNumbers.nextBulk();
+            values.bulkTraceNumber(bulkTraceNumber);
+            dynamicValues.put("requestParameters.data.bulkTraceNumber", bulkTraceNumber);
+            Allure.addAttachment("Generated bulkTraceNumber", bulkTraceNumber);
+            for (int i = 0; i < template.getTransactionCount(); i++) {
+                String traceNumber = traceNumbers.nextTransaction(template.getTransactionTypes().get(i));
+                values.transactionTraceNumber(i, traceNumber);
+                dynamicValues.put("requestParameters.data.transactions.transactionTraceNumber", traceNumber);
+            }
+        } else {
+            String traceNumber = traceNumbers.nextTransaction(template.getTransactionTypes().get(0));
+            values.transactionTraceNumber(0, traceNumber);
+            dynamicValues.put("requestParameters.data.transaction.transactionTraceNumber", traceNumber);
+        }
+
+        Allure.addAttachment("Dynamic requestTrace", dynamicRequestTrace);
+        Allure.addAttachment("Dynamic requestDateTime", dynamicTimestamp);
+        return template.render(values);
+    }
+
     @Step("Generate trace number for transaction")
     public static String generateTraceNumber(ObjectNode dynamicRequest, Map<String, String> dynamicValues) {
         String transactionType = dynamicRequest.path("requestParameters")
@@ -50,22 +93,7 @@ public class TestUtils {
                 .path("transaction")
                 .path("transactionType")
                 .asText();
-        String traceNumberPrefix;
-        switch (transactionType.toLowerCase()) {
-            case "insidebank":
-                traceNumberPrefix = "inside";
-                break;
-            case "ibft":
-                traceNumberPrefix = "ibft";
-                break;
-            case "citad":
-                traceNumberPrefix = "citad";
-                break;
-            default:
-                traceNumberPrefix = "unknown";
-                LoggerUtil.warn("Unknown transactionType: {}, using default prefix 'unknown'", transactionType);
-        }
-        String traceNumber = traceNumberPrefix + generateRandomString(10);
+        String traceNumber = TraceNumberGenerator.getDefault().nextTransaction(transactionType);
         ((ObjectNode) dynamicRequest.path("requestParameters").path("data").path("transaction"))
                 .put("transactionTraceNumber", traceNumber);
         dynamicValues.put("requestParameters.data.transaction.transactionTraceNumber", traceNumber);
@@ -74,7 +102,7 @@ public class TestUtils {
 
     @Step("Generate bulk trace number for bulk transaction")
     public static String generateBulkTraceNumber(ObjectNode dynamicRequest, Map<String, String> dynamicValues) {
-        String bulkTraceNumber = "pika" + generateRandomString(10);
+        String bulkTraceNumber = TraceNumberGenerator.getDefault().nextBulk();
         ((ObjectNode) dynamicRequest.path("requestParameters").path("data"))
                 .put("bulkTraceNumber", bulkTraceNumber);
         dynamicValues.put("requestParameters.data.bulkTraceNumber", bulkTraceNumber);
@@ -91,38 +119,23 @@ public class TestUtils {
         dynamicRequest.path("requestParameters").path("data").path("transactions").forEach(transaction -> {
             String transactionType = transaction.path("transactionType").asText();
             LoggerUtil.info("Processing transaction with transactionType: {}", transactionType);
-            String traceNumberPrefix;
-            switch (transactionType.toLowerCase()) {
-                case "insidebank":
-                    traceNumberPrefix = "inside";
-                    break;
-                case "ibft":
-                    traceNumberPrefix = "ibft";
-                    break;
-                case "citad":
-                    traceNumberPrefix = "citad";
-                    break;
-                default:
-                    traceNumberPrefix = "unknown";
-                    LoggerUtil.warn("Unknown transactionType: {}, using default prefix 'unknown'", transactionType);
-            }
-            String traceNumber = traceNumberPrefix + generateRandomString(10);
+            String traceNumber = TraceNumberGenerator.getDefault().nextTransaction(transactionType);
             LoggerUtil.info("Generated transactionTraceNumber: {}", traceNumber);
             ((ObjectNode) transaction).put("transactionTraceNumber", traceNumber);
             dynamicValues.put("requestParameters.data.transactions.transactionTraceNumber", traceNumber);
         });
     }
 
+    /**
+     * Ghi request/response của bước theo capture level; dùng lại payload mà API wrapper đã serialize cho response này.
+     */
     @Step("{stepDescription}")
-    public static Response callApiAndLogResponse(String stepDescription, String requestBody, Response response) {
-        LoggerUtil.info("Sending Request Body: \n{}", requestBody);
-        Allure.addAttachment("Request Body", "application/json", requestBody);
-        LoggerUtil.info("Response - Status Code: {}", response.getStatusCode());
-        LoggerUtil.info("Response - Headers: {}", response.getHeaders());
-        LoggerUtil.info("Response - Body: \n{}", response.getBody().asPrettyString());
-        Allure.addAttachment("Response - Status Code", String.valueOf(response.getStatusCode()));
-        Allure.addAttachment("Response - Headers", response.getHeaders().toString());
-        Allure.addAttachment("Response - Body", "application/json", response.getBody().asPrettyString());
+    public static Response callApiAndLogResponse(String stepDescription, Object requestBody, Response response) {
+        PayloadCapture.Exchange exchange = PayloadCapture.forResponse(response);
+        if (!exchange.hasRequestBody()) {
+            exchange.requestBody(requestBody);
+        }
+        exchange.publish("");
         return response;
     }
 
@@ -132,24 +145,8 @@ public class TestUtils {
         String expectedValue = (String) testCase.get("expectedValue");
 
         if (expectedField != null) {
-            String actualValue;
-            if ("responseData.bulkTransactions.bulkStatus".equals(expectedField)) {
-                List<String> bulkStatusList = null;
-                try {
-                    bulkStatusList = response.jsonPath().getList(expectedField);
-                } catch (Exception e) {
-                    LoggerUtil.info("Field {} is not a List, trying to get as String: {}", expectedField, e.getMessage());
-                }
-                if (bulkStatusList != null && !bulkStatusList.isEmpty()) {
-                    actualValue = bulkStatusList.get(0);
-                    LoggerUtil.info("Extracted bulkStatus as List from response: {}", actualValue);
-                } else {
-                    actualValue = response.jsonPath().getString(expectedField);
-                    LoggerUtil.info("Extracted bulkStatus as String from response: {}", actualValue);
-                }
-            } else {
-                actualValue = response.jsonPath().getString(expectedField);
-            }
+            // Field nằm trong mảng (vd. responseData.bulkTransactions.bulkStatus) lấy phần tử đầu như field đơn
+            String actualValue = ResponseJson.text(response, expectedField);
 
             if (actualValue == null) {
                 throw new RuntimeException("Field " + expectedField + " not found in response");
@@ -166,34 +163,29 @@ public class TestUtils {
 
     @Step("Update request body with authorization string")
     public static void updateRequestBody(ObjectNode dynamicRequest) throws Exception {
-        ObjectNode requestParameters = (ObjectNode) dynamicRequest.get("requestParameters");
-        requestParameters.get("authorizations").forEach(auth -> {
-            String authorizationId = auth.get("authorizationId").asText();
-            try {
-                LoggerUtil.info("Generating authorizationString for authorizationId: {}", authorizationId);
-                Allure.step("Generating authorizationString for authorizationId: " + authorizationId);
-                String authorizationString = SignatureUtil.generateAuthorizationString(dynamicRequest, authorizationId);
-                ((ObjectNode) auth).put("authorizationString", authorizationString);
-                LoggerUtil.info("Updated Request Body after adding authorizationString for authorizationId: {}: \n{}",
-                        authorizationId, dynamicRequest.toPrettyString());
-                Allure.addAttachment("Updated Request Body after adding authorizationString for authorizationId: " + authorizationId,
-                        "application/json", dynamicRequest.toPrettyString());
-            } catch (Exception e) {
-                LoggerUtil.error("Failed to generate authorizationString for authorizationId: {}", authorizationId, e);
-                Allure.step("Failed to generate authorizationString: " + e.getMessage(), io.qameta.allure.model.Status.FAILED);
-                throw new RuntimeException("Failed to generate authorizationString", e);
-            }
-        });
+        try {
+            LoggerUtil.info("Generating authorizationString for all authorizations");
+            Allure.step("Generating authorizationString for all authorizations");
+            Map<String, String> authorizationStrings = SignatureUtil.signAllAuthorizations(dynamicRequest);
+            // Body đã ký được API wrapper ghi lại theo capture level khi gửi đi
+            LoggerUtil.info("Added authorizationString for authorizationIds: {}", authorizationStrings.keySet());
+        } catch (Exception e) {
+            LoggerUtil.error("Failed to generate authorizationString: {}", e.getMessage(), e);
+            Allure.step("Failed to generate authorizationString: " + e.getMessage(), io.qameta.allure.model.Status.FAILED);
+            throw new RuntimeException("Failed to generate authorizationString", e);
+        }
     }
 
+    /**
+     * Chuỗi chữ số ngẫu nhiên; trace number phải lấy từ {@link TraceNumberGenerator} vì chuỗi này có thể trùng.
+     */
     public static String generateRandomString(int length) {
-        String characters = "0123456789";
-        Random random = new Random();
-        StringBuilder sb = new StringBuilder(length);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] digits = new char[length];
         for (int i = 0; i < length; i++) {
-            sb.append(characters.charAt(random.nextInt(characters.length())));
+            digits[i] = (char) ('0' + random.nextInt(10));
         }
-        return sb.toString();
+        return new String(digits);
     }
 
     public static String getDefaultFromDate() {
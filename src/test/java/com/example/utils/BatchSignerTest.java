@@ -0,0 +1,65 @@
+package com.example.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+public class BatchSignerTest {
+
+    @Test
+    void signsEveryAuthorizerInInputOrder() {
+        ObjectNode ibft = TemplateRegistry.getDefault().newRequest("ibft");
+        ObjectNode inside = TemplateRegistry.getDefault().newRequest("inside");
+
+        List<BatchSigner.Result> results = BatchSigner.signAll(Arrays.asList(ibft, inside));
+
+        assertThat(results.get(0).getIndex(), equalTo(0));
+        assertThat(results.get(1).getIndex(), equalTo(1));
+        for (BatchSigner.Result result : results) {
+            assertThat(result.isSuccess(), equalTo(true));
+            for (JsonNode auth : authorizations(result.getRequest())) {
+                String authorizationString = auth.path("authorizationString").asText();
+                assertThat(authorizationString.isEmpty(), equalTo(false));
+                assertThat(result.getAuthorizationStrings().get(auth.path("authorizationId").asText()), equalTo(authorizationString));
+            }
+        }
+    }
+
+    @Test
+    void failedRequestIsLeftUntouched() {
+        ObjectNode unknownSecond = TemplateRegistry.getDefault().newRequest("ibft");
+        ((ObjectNode) authorizations(unknownSecond).get(1)).put("authorizationId", "unknown-authorizer");
+        ObjectNode nonObjectSecond = TemplateRegistry.getDefault().newRequest("ibft");
+        authorizations(nonObjectSecond).set(1, TextNode.valueOf("not-an-authorization"));
+        ObjectNode valid = TemplateRegistry.getDefault().newRequest("ibft");
+        JsonNode unknownBefore = unknownSecond.deepCopy();
+        JsonNode nonObjectBefore = nonObjectSecond.deepCopy();
+
+        List<BatchSigner.Result> results = BatchSigner.signAll(Arrays.asList(unknownSecond, nonObjectSecond, valid));
+
+        assertThat(results.get(0).isSuccess(), equalTo(false));
+        assertThat(results.get(0).getError(), instanceOf(IllegalArgumentException.class));
+        assertThat(results.get(0).getAuthorizationStrings(), is(anEmptyMap()));
+        assertThat(unknownSecond, equalTo(unknownBefore));
+        assertThat(results.get(1).isSuccess(), equalTo(false));
+        assertThat(nonObjectSecond, equalTo(nonObjectBefore));
+        assertThat(results.get(2).isSuccess(), equalTo(true));
+        assertThat(results.get(2).getAuthorizationStrings(), is(not(anEmptyMap())));
+    }
+
+    private static ArrayNode authorizations(JsonNode request) {
+        return (ArrayNode) request.path("requestParameters").path("authorizations");
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.bouncycastle.cms.CMSSignedData;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+
+/**
+ * Body dựng từ {@link CompiledTemplate} phải trùng từng byte với cây template đã patch rồi serialize bằng Jackson,
+ * với mọi template trong registry. Chữ ký CMS chứa thời điểm ký nên không so sánh được giữa hai lần ký: cây dùng
+ * chính authorizationString của body đã render, và nội dung được ký phải là hash của đoạn data.
+ */
+public class CompiledTemplateTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @TestFactory
+    Stream<DynamicTest> renderMatchesSignedJacksonTree() {
+        return TemplateRegistry.getDefault().keys().stream().flatMap(key -> Stream.of(
+                DynamicTest.dynamicTest(key + " (plain values)", () -> assertSameBytes(key, "trace-0001", "2025-04-10T10:00:00+07:00", "N")),
+                DynamicTest.dynamicTest(key + " (escaped values)", () -> assertSameBytes(key, "q\"\\/\u0001\ttrace", "ngày é 😀", " x"))));
+    }
+
+    private static void assertSameBytes(String key, String requestTrace, String requestDateTime, String traceSuffix) throws Exception {
+        CompiledTemplate template = TemplateRegistry.getDefault().compiled(key);
+        CompiledTemplate.Values values = template.newValues().requestTrace(requestTrace).requestDateTime(requestDateTime);
+        ObjectNode request = TemplateRegistry.getDefault().newRequest(key);
+        request.put("requestTrace", requestTrace);
+        request.put("requestDateTime", requestDateTime);
+        ObjectNode data = (ObjectNode) request.path("requestParameters").path("data");
+        if (template.isBulk()) {
+            values.bulkTraceNumber("pika" + traceSuffix);
+            data.put("bulkTraceNumber", "pika" + traceSuffix);
+            for (int i = 0; i < template.getTransactionCount(); i++) {
+                values.transactionTraceNumber(i, "inside" + i + traceSuffix);
+                ((ObjectNode) data.path("transactions").get(i)).put("transactionTraceNumber", "inside" + i + traceSuffix);
+            }
+        } else {
+            values.transactionTraceNumber(0, "inside" + traceSuffix);
+            ((ObjectNode) data.path("transaction")).put("transactionTraceNumber", "inside" + traceSuffix);
+        }
+        byte[] rendered = template.render(values);
+        JsonNode renderedAuthorizations = MAPPER.readTree(rendered).path("requestParameters").path("authorizations");
+        assertThat(renderedAuthorizations.size(), equalTo(template.getAuthorizationIds().size()));
+        assertThat(new String(rendered, StandardCharsets.UTF_8), equalTo(serializeWithSignaturesOf(request, rendered)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        template.writeTo(out, values);
+        byte[] written = out.toByteArray();
+        assertThat(new String(written, StandardCharsets.UTF_8), equalTo(serializeWithSignaturesOf(request, written)));
+
+        // Đoạn data trong body là đúng chuỗi mà hashDataWithSha256 băm
+        byte[] dataBytes = MAPPER.writeValueAsString(data).getBytes(StandardCharsets.UTF_8);
+        int dataStart = indexOf(rendered, dataBytes);
+        assertThat(dataStart, greaterThanOrEqualTo(0));
+        String hash = SignatureUtil.hashDataWithSha256(data);
+        assertThat(SignatureUtil.hashDataBytes(rendered, dataStart, dataBytes.length), equalTo(hash));
+        for (JsonNode authorization : renderedAuthorizations) {
+            CMSSignedData signed = new CMSSignedData(Base64.getDecoder().decode(authorization.path("authorizationString").asText()));
+            assertThat((byte[]) signed.getSignedContent().getContent(), equalTo(hash.getBytes(StandardCharsets.UTF_16LE)));
+        }
+    }
+
+    /**
+     * Cây request với authorizationString lấy từ body đã render, serialize bằng Jackson.
+     */
+    private static String serializeWithSignaturesOf(ObjectNode request, byte[] rendered) throws Exception {
+        JsonNode renderedAuthorizations = MAPPER.readTree(rendered).path("requestParameters").path("authorizations");
+        for (int i = 0; i < renderedAuthorizations.size(); i++) {
+            ((ObjectNode) request.path("requestParameters").path("authorizations").get(i))
+                    .put("authorizationString", renderedAuthorizations.get(i).path("authorizationString").asText());
+        }
+        return MAPPER.writeValueAsString(request);
+    }
+
+    private static int indexOf(byte[] haystack, byte[] needle) {
+        outer:
+        for (int i = 0; i <= haystack.length - needle.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (haystack[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TraceNumberGeneratorTest {
+    @TempDir
+    Path stateDir;
+
+    @Test
+    void concurrentCallsNeverRepeatANumber() throws Exception {
+        int threads = 8;
+        int perThread = 5_000;
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (TraceNumberGenerator generator = TraceNumberGenerator.open(stateDir, 1, 100)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(pool.submit(() -> {
+                    for (int n = 0; n < perThread; n++) {
+                        numbers.add(generator.nextBulk());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertThat(numbers.size(), equalTo(threads * perThread));
+        for (String number : numbers) {
+            assertThat(number.length(), equalTo(TraceNumberGenerator.PREFIX_BULK.length() + 10));
+        }
+    }
+
+    @Test
+    void restartContinuesAfterTheReservedBlock() {
+        long last;
+        try (TraceNumberGenerator generator = TraceNumberGenerator.open(stateDir, 3, 10)) {
+            String number = null;
+            for (int i = 0; i < 15; i++) {
+                number = generator.next("t");
+            }
+            assertThat(number.substring(1, 3), equalTo("03"));
+            last = sequenceOf(number);
+        }
+        try (TraceNumberGenerator generator = TraceNumberGenerator.open(stateDir, 3, 10)) {
+            assertThat(sequenceOf(generator.next("t")), equalTo((last / 10 + 1) * 10));
+        }
+    }
+
+    @Test
+    void nodeCannotBeOpenedTwice() {
+        try (TraceNumberGenerator generator = TraceNumberGenerator.open(stateDir, 7, 10)) {
+            assertThrows(IllegalStateException.class, () -> TraceNumberGenerator.open(stateDir, 7, 10));
+            try (TraceNumberGenerator other = TraceNumberGenerator.open(stateDir, -1, 10)) {
+                assertThat(other.getNode(), not(equalTo(generator.getNode())));
+            }
+        }
+    }
+
+    @Test
+    void freshStateDoesNotStartAtZero(@TempDir Path otherStateDir) {
+        try (TraceNumberGenerator first = TraceNumberGenerator.open(stateDir, 0, 1);
+             TraceNumberGenerator second = TraceNumberGenerator.open(otherStateDir, 0, 1)) {
+            assertThat(first.next("t"), not(equalTo(second.next("t"))));
+        }
+    }
+
+    @Test
+    void exhaustedSequenceFails() throws Exception {
+        Files.write(stateDir.resolve("node-05.hwm"), String.format(Locale.ROOT, "%019d\n", TraceNumberGenerator.MAX_SEQUENCE - 2)
+                .getBytes(StandardCharsets.US_ASCII));
+        try (TraceNumberGenerator generator = TraceNumberGenerator.open(stateDir, 5, 1)) {
+            generator.next("t");
+            generator.next("t");
+            assertThat(generator.next("t"), equalTo("t0599999999"));
+            assertThrows(IllegalStateException.class, () -> generator.next("t"));
+        }
+    }
+
+    private static long sequenceOf(String number) {
+        return Long.parseLong(number.substring(number.length() - 8));
+    }
+}